@@ -0,0 +1,117 @@
+package uq.comp3506.a1.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uq.comp3506.a1.structures.BitVector;
+
+/**
+ * BitVector whole-vector operations, 1K to 100M bits with a quarter set.
+ * Forks run with jdk.incubator.vector, so the bulk operations use the vector
+ * kernels; add -jvmArgsAppend -Duq.comp3506.a1.scalarKernels=true to measure
+ * the scalar ones instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx4g", "--add-modules=jdk.incubator.vector"})
+public class BitVectorBench {
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public long size;
+
+    /**
+     * not multiples of 64, so the word-straddling paths are measured; the
+     * second also moves whole words in rotate
+     */
+    @Param({"37", "1000003"})
+    public long dist;
+
+    private BitVector bv;
+    private BitVector other;
+
+    /**
+     * the same bits as bv, for the ReversalRotate baseline
+     */
+    private long[] raw;
+
+    @Setup
+    public void setup() {
+        Random r = new Random(3506);
+        bv = new BitVector(size);
+        other = new BitVector(size);
+        raw = new long[(int) ((size + 63) >>> 6)];
+        for (long i = 0; i < size; i++) {
+            if (r.nextInt(4) == 0) {
+                bv.set(i);
+                raw[(int) (i >>> 6)] |= 1L << i;
+            }
+            if (r.nextInt(4) == 0) {
+                other.set(i);
+            }
+        }
+    }
+
+    /**
+     * A left shift and the right shift back. Shifting bv one way on every
+     * call would empty it within a few calls. After the first pair it has
+     * only lost its top dist bits, so every call shifts the same quarter-set
+     * data.
+     */
+    @Benchmark
+    public void shiftLeftThenRight() {
+        bv.shift(dist);
+        bv.shift(-dist);
+    }
+
+    @Benchmark
+    public void rotate() {
+        bv.rotate(dist);
+    }
+
+    /**
+     * the three-reversal rotate that rotate replaced, on the same bits
+     */
+    @Benchmark
+    public void rotateByReversal() {
+        ReversalRotate.rotate(raw, size, dist);
+    }
+
+    @Benchmark
+    public void complement() {
+        bv.complement();
+    }
+
+    @Benchmark
+    public long popcount() {
+        return bv.popcount();
+    }
+
+    @Benchmark
+    public void orInPlace() {
+        bv.or(other);
+    }
+
+    @Benchmark
+    public BitVector xorOutOfPlace() {
+        return BitVector.xor(bv, other);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean get() {
+        return bv.get(size / 3);
+    }
+}
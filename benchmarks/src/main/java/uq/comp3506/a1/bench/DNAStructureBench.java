@@ -0,0 +1,88 @@
+package uq.comp3506.a1.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uq.comp3506.a1.DNAStructure;
+
+/**
+ * DNAStructure over a full window of random bases, width 1K to 100M.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class DNAStructureBench {
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int width;
+
+    @Param({"false", "true"})
+    public boolean packed;
+
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+    private DNAStructure dna;
+    private char[] stream;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random r = new Random(3506);
+        dna = new DNAStructure(width, packed);
+        for (int i = 0; i < width; i++) {
+            dna.slide(BASES[r.nextInt(4)]);
+        }
+        stream = new char[1 << 16];
+        for (int i = 0; i < stream.length; i++) {
+            stream[i] = BASES[r.nextInt(4)];
+        }
+    }
+
+    @Benchmark
+    public void slide() {
+        dna.slide(stream[next]);
+        next = (next + 1) & (stream.length - 1);
+    }
+
+    @Benchmark
+    public void slideAll4K() {
+        dna.slideAll(stream, next, 4096);
+        next = (next + 4096) & (stream.length - 1);
+    }
+
+    @Benchmark
+    public int count() {
+        return dna.count('G');
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int countRepeats11() {
+        return dna.countRepeats(11);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int countRepeats31() {
+        return dna.countRepeats(31);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean hasPalindrome12() {
+        return dna.hasPalindrome(12);
+    }
+}
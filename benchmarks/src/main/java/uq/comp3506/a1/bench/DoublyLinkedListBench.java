@@ -0,0 +1,57 @@
+package uq.comp3506.a1.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uq.comp3506.a1.structures.DoublyLinkedList;
+
+/**
+ * DoublyLinkedList.get, which walks from the nearer end. Sizes stop at 10M
+ * nodes since each node is three objects' worth of heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class DoublyLinkedListBench {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private DoublyLinkedList<Integer> list;
+
+    @Setup
+    public void setup() {
+        list = new DoublyLinkedList<>();
+        for (int i = 0; i < size; i++) {
+            list.append(i);
+        }
+    }
+
+    @Benchmark
+    public Integer getMiddle() {
+        return list.get(size / 2);
+    }
+
+    @Benchmark
+    public Integer getQuarter() {
+        return list.get(size / 4);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Integer getFirst() {
+        return list.getFirst();
+    }
+}
@@ -0,0 +1,63 @@
+package uq.comp3506.a1.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uq.comp3506.a1.structures.DynamicArray;
+
+/**
+ * DynamicArray.sort on shuffled Integers. Sizes stop at 10M because every
+ * element is a boxed object; 100M would need tens of GB of heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class DynamicArrayBench {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private Integer[] values;
+    private DynamicArray<Integer> array;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Random r = new Random(3506);
+        values = new Integer[size];
+        array = new DynamicArray<>();
+        for (int i = 0; i < size; i++) {
+            values[i] = r.nextInt();
+            array.append(values[i]);
+        }
+    }
+
+    /**
+     * put the original unsorted order back before every sort
+     */
+    @Setup(Level.Invocation)
+    public void unsort() {
+        for (int i = 0; i < size; i++) {
+            array.set(i, values[i]);
+        }
+    }
+
+    @Benchmark
+    public DynamicArray<Integer> sort() {
+        array.sort();
+        return array;
+    }
+}
@@ -0,0 +1,73 @@
+package uq.comp3506.a1.bench;
+
+/**
+ * The earlier in-place BitVector.rotate, kept as a baseline for
+ * BitVectorBench.rotate: X = [0, size - dist) and Y = the top dist bits are
+ * reversed, then the whole range is reversed, which turns XY into YX.
+ * Each reversal swaps unaligned 64-bit chunks from both ends inwards.
+ */
+final class ReversalRotate {
+
+    private ReversalRotate() {
+    }
+
+    /**
+     * rotate the size bits held in words left by dist, as BitVector.rotate
+     */
+    static void rotate(long[] words, long size, long dist) {
+        if (size == 0) {
+            return;
+        }
+        long normDist = dist % size;
+        if (normDist < 0) {
+            normDist += size;
+        }
+        if (normDist == 0) {
+            return;
+        }
+        long split = size - normDist;
+        reverseRange(words, 0, split);
+        reverseRange(words, split, size);
+        reverseRange(words, 0, size);
+    }
+
+    private static void reverseRange(long[] words, long lo, long hi) {
+        while (hi - lo >= 128) {
+            long a = getBits(words, lo, 64);
+            long b = getBits(words, hi - 64, 64);
+            putBits(words, lo, 64, Long.reverse(b));
+            putBits(words, hi - 64, 64, Long.reverse(a));
+            lo += 64;
+            hi -= 64;
+        }
+        int half = (int) ((hi - lo) / 2);
+        if (half > 0) {
+            long a = getBits(words, lo, half);
+            long b = getBits(words, hi - half, half);
+            putBits(words, lo, half, Long.reverse(b) >>> (64 - half));
+            putBits(words, hi - half, half, Long.reverse(a) >>> (64 - half));
+        }
+    }
+
+    private static long getBits(long[] words, long pos, int len) {
+        int w = (int) (pos >>> 6);
+        int off = (int) (pos & 63);
+        long v = words[w] >>> off;
+        if (off + len > 64) {
+            v |= words[w + 1] << (64 - off);
+        }
+        return len == 64 ? v : v & ((1L << len) - 1L);
+    }
+
+    private static void putBits(long[] words, long pos, int len, long v) {
+        int w = (int) (pos >>> 6);
+        int off = (int) (pos & 63);
+        long mask = len == 64 ? ~0L : (1L << len) - 1L;
+        v &= mask;
+        words[w] = (words[w] & ~(mask << off)) | (v << off);
+        if (off + len > 64) {
+            long spillMask = (1L << (off + len - 64)) - 1L;
+            words[w + 1] = (words[w + 1] & ~spillMask) | (v >>> (64 - off));
+        }
+    }
+}
@@ -2,26 +2,77 @@
 
 package uq.comp3506.a1;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Supplied by the COMP3506/7505 teaching team, Semester 2, 2025.
  */
 public class DNAStructure {
     private final int width;
     private final char[] window;
+
+    /**
+     * 2-bit codes of the window, 32 bases per long, used instead of window when packed
+     */
+    private final long[] packed;
+
     private int size;
     private int head;
     private int[] count;
 
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+    /**
+     * Incremental repeat/palindrome trackers indexed by k, null where k is not tracked
+     */
+    private KmerTracker[] trackers = new KmerTracker[0];
+
+    /**
+     * countRepeats uses a dense counter per possible k-mer up to this k
+     * (4^11 ints = 16MB), as long as that is not much bigger than the window
+     */
+    private static final int DENSE_MAX_K = 11;
+    private static final int DENSE_MIN_ENTRIES = 1 << 12;
+
+    /**
+     * scratch tables reused by countRepeats, allocated on first use
+     */
+    private int[] denseCounts;
+    private IntToIntHash scratch;
+    private LongToIntHash longScratch;
+    private LongPairToIntHash wideScratch;
+
+    /**
+     * largest k whose code fits the int paths (and IntToIntHash): the int
+     * mask 1 << 2k overflows from k = 16, so longer k-mers use long codes
+     */
+    private static final int INT_MAX_K = 15;
+
+    /**
+     * largest k that countRepeats and hasPalindrome can encode (two longs)
+     */
+    static final int MAX_K = 64;
 
     /**
      * Construct at empty DNAStructure object that can store w chars.
      */
     public DNAStructure(int width) {
+        this(width, false);
+    }
+
+    /**
+     * Construct an empty DNAStructure of width w. If packed is true the window
+     * is kept as 2-bit base codes in a long[] (8x smaller than char[]) rather
+     * than as chars; every operation behaves the same in both modes.
+     */
+    public DNAStructure(int width, boolean packed) {
         if (width < 0) {
             throw new IllegalArgumentException("w must be >= 0");
         }
         this.width = width;
-        this.window = new char[width];
+        this.window = packed ? null : new char[width];
+        this.packed = packed ? new long[(width + 31) >>> 5] : null;
         this.size = 0;
         this.head = 0;
         this.count = new int[4]; // counts of A,C,G,T, updated on slide for O(1) fetch
@@ -34,23 +85,332 @@ public class DNAStructure {
         return size == width;
     }
 
+    /**
+     * Empty the window, as if newly constructed. k's registered with
+     * trackRepeats or trackPalindromes stay tracked, from a count of 0.
+     * O(1) if the window is already empty, otherwise O(1) plus O(w) per
+     * tracked k with repeat counts to clear.
+     */
+    public void clear() {
+        if (size == 0) {
+            return; // nothing slid since construction or the last clear
+        }
+        head = 0;
+        size = 0;
+        for (int i = 0; i < count.length; i++) {
+            count[i] = 0;
+        }
+        for (KmerTracker t : trackers) {
+            if (t != null) {
+                t.reset();
+            }
+        }
+    }
+
     /**
      * Remove the oldest character, and add the newest one
      * Full marks: O(1) or O(1*) worst-case
+     * Throws an IllegalArgumentException, leaving the window as it was, if c
+     * is not A, C, G or T (as slideAll does).
      */
     public void slide(char c) {
+        int code = encode(c);
+        if (code < 0) {
+            throw new IllegalArgumentException(invalidBase(c));
+        }
+        slideCode(code);
+    }
+
+    private static String invalidBase(char c) {
+        return "Invalid base '" + c + "'";
+    }
+
+    /**
+     * slide for a base already encoded and checked
+     */
+    private void slideCode(int code) {
         if (!isFull()) {
+            count[code]++;
             // Place new char at the "tail" position
-            window[(head + size) % width] = c;
+            store((head + size) % width, code);
             size++;
-            count[encode(c)]++;
+            updateTrackers(code, false);
         } else {
-            char old = window[head];
-            count[encode(old)]--;
-            window[head] = c; //replace head with new char, move the head forward one(circular)
-            count[encode(c)]++;
+            count[code]++;
+            // the oldest k-mers leave before head moves past them
+            evictTrackers();
+            count[codeAt(head)]--;
+            store(head, code); //replace head with new char, move the head forward one(circular)
 
             head = (head + 1) % width;
+            updateTrackers(code, true);
+        }
+    }
+
+    /**
+     * Slide every base of bases into the window, oldest first, with the same
+     * result as calling slide on each char. The whole input is checked first,
+     * so if any char is not A, C, G or T an IllegalArgumentException is
+     * thrown and the window is left as it was. When bases is at least w long
+     * the window is rebuilt from its last w bases in one pass (the rest
+     * would be pushed out anyway and are only checked).
+     */
+    public void slideAll(CharSequence bases) {
+        slideAll(bases.length(), bases::charAt);
+    }
+
+    /**
+     * Same as slideAll(CharSequence) over bases[offset, offset + length)
+     */
+    public void slideAll(char[] bases, int offset, int length) {
+        if (offset < 0 || length < 0 || length > bases.length - offset) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + "+"
+                    + length + ") is out of bounds.");
+        }
+        slideAll(length, i -> bases[offset + i]);
+    }
+
+    /**
+     * Same as slideAll(CharSequence) over the ASCII bases between the buffer's
+     * position and limit. The buffer's position is advanced to its limit,
+     * unless an invalid base is found, in which case it is not moved.
+     */
+    public void slideAll(ByteBuffer bases) {
+        final int start = bases.position();
+        final int end = bases.limit();
+        slideAll(end - start, i -> (char) (bases.get(start + i) & 0xFF));
+        bases.position(end);
+    }
+
+    /**
+     * the n chars of a slideAll input, read by index
+     */
+    @FunctionalInterface
+    private interface Bases {
+        char charAt(int i);
+    }
+
+    private void slideAll(int n, Bases bases) {
+        for (int i = 0; i < n; i++) {
+            char c = bases.charAt(i);
+            if (encode(c) < 0) {
+                throw new IllegalArgumentException(invalidBase(c) + " at index " + i);
+            }
+        }
+        if (n >= width) {
+            refill(bases, n - width);
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            slideCode(encode(bases.charAt(i)));
+        }
+    }
+
+    /**
+     * helper for slideAll: replace the whole window with the w (already
+     * checked) bases from index from on. Counts, storage and every tracker
+     * are rebuilt together in one pass, and packed words are written whole.
+     */
+    private void refill(Bases bases, int from) {
+        clear();
+        long word = 0;
+        for (int i = 0; i < width; i++) {
+            int code = encode(bases.charAt(from + i));
+            count[code]++;
+            if (packed == null) {
+                window[i] = BASES[code];
+            } else {
+                word |= (long) code << ((i & 31) << 1);
+                if ((i & 31) == 31 || i == width - 1) {
+                    packed[i >>> 5] = word;
+                    word = 0;
+                }
+            }
+            for (int k = 2; k < trackers.length; k++) {
+                KmerTracker t = trackers[k];
+                if (t == null) {
+                    continue;
+                }
+                t.roll(code);
+                if (i == k - 1) {
+                    t.markFirst();
+                }
+                if (i >= k - 1) {
+                    t.add();
+                }
+            }
+        }
+        size = width;
+    }
+
+    /**
+     * write the base with the given code to physical slot idx
+     */
+    private void store(int idx, int code) {
+        if (packed == null) {
+            window[idx] = BASES[code];
+        } else {
+            int shift = (idx & 31) << 1;
+            packed[idx >>> 5] = (packed[idx >>> 5] & ~(3L << shift)) | ((long) code << shift);
+        }
+    }
+
+    /**
+     * 2-bit code of the base in physical slot idx
+     */
+    int codeAt(int idx) {
+        if (packed == null) {
+            return encode(window[idx]);
+        }
+        return (int) (packed[idx >>> 5] >>> ((idx & 31) << 1)) & 3;
+    }
+
+    /**
+     * 2-bit codes of the 32 bases from physical slot idx on, oldest in the
+     * low bits, wrapping round the ring once. The rolling loops read their
+     * bases through this, one call per 32 bases. Slots not yet written (and
+     * anything past the window when w < 32) come back as arbitrary codes.
+     */
+    long codesAt(int idx) {
+        if (packed == null) {
+            long bits = 0;
+            for (int j = 0, p = idx; j < 32 && j < width; j++) {
+                bits |= (long) (encode(window[p]) & 3) << (j << 1);
+                if (++p == width) {
+                    p = 0;
+                }
+            }
+            return bits;
+        }
+        long bits = packedWord(idx);
+        int left = width - idx; // bases before the ring wraps
+        if (left < 32) {
+            int kept = left << 1;
+            bits = (bits & ((1L << kept) - 1)) | (packedWord(0) << kept);
+        }
+        return bits;
+    }
+
+    /**
+     * the 32 packed codes from slot idx: a funnel shift of the word holding
+     * idx and the one after it
+     */
+    private long packedWord(int idx) {
+        int w = idx >>> 5;
+        int off = (idx & 31) << 1;
+        long bits = packed[w] >>> off;
+        if (off != 0 && w + 1 < packed.length) {
+            bits |= packed[w + 1] << (64 - off);
+        }
+        return bits;
+    }
+
+    /**
+     * codesAt for the base i positions after the oldest
+     */
+    private long codes(int i) {
+        return codesAt((int) (((long) head + i) % width));
+    }
+
+    /**
+     * Register k so that countRepeats(k) is answered in O(1) from then on.
+     * Each slide pays O(1) expected per tracked k to keep the counts current.
+     * If the window already holds data it is counted once here in O(w).
+     */
+    public void trackRepeats(int k) {
+        KmerTracker t = tracker(k);
+        if (t.freq == null) {
+            t.freq = new LongToIntHash(highestPowerOfTwoAtLeast(Math.max(1L, width - k + 1) * 2));
+            seed(t);
+        }
+    }
+
+    /**
+     * Register k so that hasPalindrome(k) is answered in O(1) from then on.
+     * Each slide rolls the forward and reverse complement codes of the oldest
+     * and newest k-mer and keeps a count of palindromic k-mers in the window.
+     * If the window already holds data it is scanned once here in O(w).
+     */
+    public void trackPalindromes(int k) {
+        KmerTracker t = tracker(k);
+        if (!t.palindromes) {
+            t.palindromes = true;
+            seed(t);
+        }
+    }
+
+    /**
+     * find or create the tracker for k, growing the tracker array if needed
+     */
+    private KmerTracker tracker(int k) {
+        if (k < 2 || k > 32) {
+            throw new IllegalArgumentException("k must be in [2, 32]");
+        }
+        if (k >= trackers.length) {
+            KmerTracker[] grown = new KmerTracker[k + 1];
+            System.arraycopy(trackers, 0, grown, 0, trackers.length);
+            trackers = grown;
+        }
+        if (trackers[k] == null) {
+            trackers[k] = new KmerTracker(k);
+        }
+        return trackers[k];
+    }
+
+    /**
+     * rebuild a tracker from whatever is currently in the window
+     */
+    private void seed(KmerTracker t) {
+        t.reset();
+        long bits = 0;
+        for (int i = 0; i < size; i++) {
+            if ((i & 31) == 0) {
+                bits = codes(i);
+            }
+            t.roll((int) bits & 3);
+            bits >>>= 2;
+            if (i == t.k - 1) {
+                t.markFirst();
+            }
+            if (i >= t.k - 1) {
+                t.add();
+            }
+        }
+    }
+
+    /**
+     * Drop the oldest k-mer of every tracker, called while head is still on it
+     */
+    private void evictTrackers() {
+        for (int k = 2; k < trackers.length; k++) {
+            KmerTracker t = trackers[k];
+            if (t != null && size >= k) {
+                t.remove();
+            }
+        }
+    }
+
+    /**
+     * Roll the newest base into every tracker once the window has been updated
+     * evicted is true when the slide moved head (so the oldest k-mer changed)
+     */
+    private void updateTrackers(int inChar, boolean evicted) {
+        for (int k = 2; k < trackers.length; k++) {
+            KmerTracker t = trackers[k];
+            if (t == null) {
+                continue;
+            }
+            t.roll(inChar);
+            if (size < k) {
+                continue;
+            }
+            t.add();
+            if (evicted) {
+                // the base at the end of the new oldest k-mer
+                t.rollFirst(codeAt((head + k - 1) % width));
+            } else if (size == k) {
+                t.markFirst();
+            }
         }
     }
 
@@ -72,119 +432,346 @@ public class DNAStructure {
      * Full marks: O(w) worst-case
      * Partial marks: O(wk) worst-case
      * Note: k will be in the range [2, 13], and 2 <= k <= w
+     * k-mers are packed into an int up to k = 15, a long up to k = 32 and
+     * two longs up to k = 64; larger k throw an IllegalArgumentException.
      */
     public int countRepeats(int k) {
+        return countRepeats(k, false);
+    }
+
+    /**
+     * As countRepeats(k), but if canonical is true a k-mer and its reverse
+     * complement are treated as the same sequence (counted under whichever
+     * code is smaller). Both codes are rolled in the same single pass.
+     * Tracked k (see trackRepeats) only apply when canonical is false.
+     */
+    public int countRepeats(int k, boolean canonical) {
 
         if (k < 2 || k > size) {
             return 0;
         }
-
-        final int n = size;
-        final int numKmers = n - k + 1; // total number of k-mers
-        // find the lowest power of 2 that is bigger than number of k-mers
-        final int capPow2 = highestPowerOfTwoAtLeast(Math.max(8, numKmers * 2));
-        final IntToIntHash freq = new IntToIntHash(capPow2);
-
-        int code = 0;
-        for (int i = 0; i < k; i++) {
-            // window index of the i-th char inside the current logical window
-            int idx = (head + i) % width;
-            // accumulate 2 bits for this base
-            code = (code << 2) | encode(window[idx]);
+        if (!canonical && k < trackers.length && trackers[k] != null
+                && trackers[k].freq != null) {
+            return trackers[k].repeats;
         }
-        // Record frequency of the first k-mer
-        freq.put(code, freq.get(code) + 1);
 
+        checkMaxK(k);
+        if (k > 32) {
+            return countRepeatsWide(k, canonical);
+        } else if (k > INT_MAX_K) {
+            return countRepeatsLong(k, canonical);
+        }
+        if (k <= DENSE_MAX_K && (1L << (2 * k)) <= Math.max(DENSE_MIN_ENTRIES, 8L * width)) {
+            return countRepeatsDense(k, canonical);
+        }
+        return countRepeatsHashed(k, canonical);
+    }
 
-        final int mask = (1 << (2 * k)) - 1; // mask for 2k bits k = 3: (0b111111) for rolling
-
-        //roll over the rest of the window
-        for (int i = 1; i <= n - k; i++) { //already did 0, start from 1 to n - k(number of k-mers)
+    /**
+     * Same result as countRepeats(k), but for wide windows the work is split
+     * across the workers of pool (see ParallelRepeats). Small windows, tracked
+     * k and k > 32 are answered by countRepeats(k) directly.
+     * The window must not be slid while this runs.
+     */
+    public int countRepeatsParallel(int k, ForkJoinPool pool) {
+        if (k < 2 || k > size) {
+            return 0;
+        }
+        boolean tracked = k < trackers.length && trackers[k] != null && trackers[k].freq != null;
+        int workers = pool.getParallelism();
+        if (tracked || k > 32 || workers < 2
+                || size - k + 1 < 2L * ParallelRepeats.MIN_CHUNK) {
+            return countRepeats(k);
+        }
+        return ParallelRepeats.count(this, k, head, width, size, pool);
+    }
 
-            int inIdx = (head + i + k - 1) % width;
-            int inChar   = encode(window[inIdx]);
+    /**
+     * countRepeatsParallel on the common fork/join pool
+     */
+    public int countRepeatsParallel(int k) {
+        return countRepeatsParallel(k, ForkJoinPool.commonPool());
+    }
 
-            //shift left by 2
-            //remove top 2 bits(& 00111111...)
-            //or in new data(1111...1100 OR inChar)
-            code = ((code << 2) & mask) | inChar;
+    /**
+     * countRepeats for small k: every possible k-mer gets its own counter, so
+     * a tally is one array increment. The counters are put back to 0 by a
+     * second roll over the window, so the array is allocated once and never
+     * needs a full O(4^k) clear.
+     */
+    private int countRepeatsDense(int k, boolean canonical) {
+        final int entries = 1 << (2 * k);
+        if (denseCounts == null || denseCounts.length < entries) {
+            denseCounts = new int[entries];
+        }
+        final int[] counts = denseCounts;
+        final int mask = entries - 1; // mask for 2k bits k = 3: (0b111111) for rolling
+        final int topShift = 2 * (k - 1);
+        int repeats = 0;
+        int code = 0;
+        int rc = 0;
+        long bits = 0; // 2-bit codes of the next bases, refilled every 32
+        for (int i = 0; i < size; i++) {
+            if ((i & 31) == 0) {
+                bits = codes(i);
+            }
+            int v = (int) bits & 3;
+            bits >>>= 2;
+            //shift left by 2, remove top 2 bits, or in the new base
+            code = ((code << 2) & mask) | v;
+            int key = code;
+            if (canonical) {
+                rc = (rc >>> 2) | (complementBase2(v) << topShift);
+                key = Math.min(code, rc);
+            }
+            // a k-mer is counted as a repeat the moment it is seen the second time
+            if (i >= k - 1 && ++counts[key] == 2) {
+                repeats++;
+            }
+        }
+        code = 0;
+        rc = 0;
+        for (int i = 0; i < size; i++) {
+            if ((i & 31) == 0) {
+                bits = codes(i);
+            }
+            int v = (int) bits & 3;
+            bits >>>= 2;
+            code = ((code << 2) & mask) | v;
+            rc = (rc >>> 2) | (complementBase2(v) << topShift);
+            if (i >= k - 1) {
+                counts[canonical ? Math.min(code, rc) : code] = 0;
+            }
+        }
+        return repeats;
+    }
 
-            // Tally into hashtable
-            freq.put(code, freq.get(code) + 1);
+    /**
+     * countRepeats for large k: tally into an open-addressing table sized for
+     * the full window, allocated on first use and cleared after every call
+     */
+    private int countRepeatsHashed(int k, boolean canonical) {
+        if (scratch == null) {
+            scratch = new IntToIntHash(highestPowerOfTwoAtLeast(Math.max(1L, width) * 2));
+        }
+        final IntToIntHash freq = scratch;
+        final int mask = (1 << (2 * k)) - 1;
+        final int topShift = 2 * (k - 1);
+        int repeats = 0;
+        int code = 0;
+        int rc = 0;
+        long bits = 0;
+        for (int i = 0; i < size; i++) {
+            if ((i & 31) == 0) {
+                bits = codes(i);
+            }
+            int v = (int) bits & 3;
+            bits >>>= 2;
+            code = ((code << 2) & mask) | v;
+            int key = code;
+            if (canonical) {
+                rc = (rc >>> 2) | (complementBase2(v) << topShift);
+                key = Math.min(code, rc);
+            }
+            if (i >= k - 1 && freq.increment(key) == 2) {
+                repeats++;
+            }
         }
+        freq.clear();
+        return repeats;
+    }
 
+    /**
+     * countRepeats for 16 <= k <= 32, same as countRepeatsHashed on long codes
+     */
+    private int countRepeatsLong(int k, boolean canonical) {
+        if (longScratch == null) {
+            longScratch = new LongToIntHash(highestPowerOfTwoAtLeast(Math.max(1L, width) * 2));
+        }
+        final LongToIntHash freq = longScratch;
+        final long mask = longMask(k);
+        final int topShift = 2 * (k - 1);
+        int repeats = 0;
+        long code = 0;
+        long rc = 0;
+        long bits = 0;
+        for (int i = 0; i < size; i++) {
+            if ((i & 31) == 0) {
+                bits = codes(i);
+            }
+            int v = (int) bits & 3;
+            bits >>>= 2;
+            code = ((code << 2) & mask) | v;
+            long key = code;
+            if (canonical) {
+                rc = (rc >>> 2) | ((long) complementBase2(v) << topShift);
+                // unsigned, as a 32-mer uses the sign bit
+                key = Long.compareUnsigned(code, rc) <= 0 ? code : rc;
+            }
+            if (i >= k - 1 && freq.increment(key) == 2) {
+                repeats++;
+            }
+        }
+        freq.clear();
+        return repeats;
+    }
 
+    /**
+     * countRepeats for 33 <= k <= 64: the k-mer is held as (hi, lo) where lo
+     * is the newest 32 bases and hi the 2k - 64 bits of older bases
+     */
+    private int countRepeatsWide(int k, boolean canonical) {
+        if (wideScratch == null) {
+            wideScratch = new LongPairToIntHash(highestPowerOfTwoAtLeast(Math.max(1L, width) * 2));
+        }
+        final LongPairToIntHash freq = wideScratch;
+        final long hiMask = longMask(k - 32);
+        final int topShift = 2 * (k - 1) - 64; // top lane of the reverse complement, inside hi
         int repeats = 0;
-        for (int i = 0; i < freq.cap; i++) {
-            if (freq.used[i] && freq.vals[i] >= 2) {
+        long hi = 0;
+        long lo = 0;
+        long rcHi = 0;
+        long rcLo = 0;
+        long bits = 0;
+        for (int i = 0; i < size; i++) {
+            if ((i & 31) == 0) {
+                bits = codes(i);
+            }
+            int v = (int) bits & 3;
+            bits >>>= 2;
+            // the base falling off the top of lo moves into the bottom of hi
+            hi = ((hi << 2) | (lo >>> 62)) & hiMask;
+            lo = (lo << 2) | v;
+            long keyHi = hi;
+            long keyLo = lo;
+            if (canonical) {
+                rcLo = (rcLo >>> 2) | (rcHi << 62);
+                rcHi = (rcHi >>> 2) | ((long) complementBase2(v) << topShift);
+                int cmp = hi != rcHi
+                        ? Long.compareUnsigned(hi, rcHi) : Long.compareUnsigned(lo, rcLo);
+                if (cmp > 0) {
+                    keyHi = rcHi;
+                    keyLo = rcLo;
+                }
+            }
+            if (i >= k - 1 && freq.increment(keyHi, keyLo) == 2) {
                 repeats++;
             }
         }
+        freq.clear();
         return repeats;
     }
 
+    /**
+     * mask for the low 2k bits of a long, k in [1, 32]
+     */
+    private static long longMask(int k) {
+        return k == 32 ? -1L : (1L << (2 * k)) - 1;
+    }
+
+    private static void checkMaxK(int k) {
+        if (k > MAX_K) {
+            throw new IllegalArgumentException("k must be <= " + MAX_K);
+        }
+    }
 
     /**
      * helper for countRepeats
-     * takes in int x and returns smallest 2^n that is bigger than x (min 8)
+     * takes in x and returns smallest 2^n that is at least x (min 8), capped at
+     * LongToIntHash.MAX_CAPACITY (the tables grow no further either)
      */
-    private static int highestPowerOfTwoAtLeast(int x) {
-        int c = 8;
-        while (c < x) {
+    private static int highestPowerOfTwoAtLeast(long x) {
+        long c = 8;
+        while (c < x && c < LongToIntHash.MAX_CAPACITY) {
             c <<= 1;
         }
-        return c;
+        return (int) c;
     }
 
     /**
-     * hash table that stores int key:int value
-     * used for storing encode(k-mers):frequency for fast look up
+     * per-k state for trackRepeats and trackPalindromes: forward and reverse
+     * complement codes of the oldest and newest k-mer in the window, plus
+     * live k-mer counts (if repeats are tracked) and the number of distinct
+     * k-mers occurring 2+ times, and the number of palindromic k-mers
      */
-    private static final class IntToIntHash {
-        final int mask;
-        final int cap;
-        final int[] keys;
-        final int[] vals;
-        final boolean[] used;
+    private static final class KmerTracker {
+        final int k;
+        final long mask;
+        final int topShift;
+        LongToIntHash freq;
+        boolean palindromes;
+        long first;
+        long firstRc;
+        long last;
+        long lastRc;
+        int repeats;
+        int palindromeCount;
+
+        KmerTracker(int k) {
+            this.k = k;
+            this.mask = longMask(k);
+            this.topShift = 2 * (k - 1);
+        }
+
+        /**
+         * shift base code v into the newest k-mer
+         */
+        void roll(int v) {
+            last = ((last << 2) & mask) | v;
+            lastRc = (lastRc >>> 2) | ((long) complementBase2(v) << topShift);
+        }
 
-        IntToIntHash(int capacityPow2) {
-            this.cap = capacityPow2;
-            this.mask = cap - 1; // 01111111......1111 len of log2(cap)
-            this.keys = new int[cap];
-            this.vals = new int[cap];
-            this.used = new boolean[cap];
+        /**
+         * shift base code v into the oldest k-mer after head has moved
+         */
+        void rollFirst(int v) {
+            first = ((first << 2) & mask) | v;
+            firstRc = (firstRc >>> 2) | ((long) complementBase2(v) << topShift);
         }
 
         /**
-         * look up value for key k, return 0 if not found
+         * the window holds exactly one k-mer, so oldest and newest agree
          */
-        int get(int k) {
-            int i = k & mask;
-            while (used[i]) { // linear search through empty slot or key
-                if (keys[i] == k) {
-                    return vals[i];
-                }
-                i = (i + 1) & mask;
+        void markFirst() {
+            first = last;
+            firstRc = lastRc;
+        }
+
+        /**
+         * count the newest k-mer into the window
+         */
+        void add() {
+            if (freq != null && freq.increment(last) == 2) {
+                repeats++;
+            }
+            if (palindromes && last == lastRc) {
+                palindromeCount++;
             }
-            return 0;
         }
 
-        void put(int k, int v) {
-            int i = k & mask;
-            while (true) {
-                if (!used[i]) { // claim empty slot
-                    used[i] = true;
-                    keys[i] = k;
-                    vals[i] = v;
-                    return;
-                } else if (keys[i] == k) { //update
-                    vals[i] = v;
-                    return;
-                } else {
-                    i = (i + 1) & mask; // linear search
-                }
+        /**
+         * count the oldest k-mer out of the window
+         */
+        void remove() {
+            if (freq != null && freq.decrement(first) == 1) {
+                repeats--;
+            }
+            if (palindromes && first == firstRc) {
+                palindromeCount--;
             }
         }
+
+        void reset() {
+            if (freq != null) {
+                freq.clear();
+            }
+            first = 0;
+            firstRc = 0;
+            last = 0;
+            lastRc = 0;
+            repeats = 0;
+            palindromeCount = 0;
+        }
     }
 
     /**
@@ -192,51 +779,95 @@ public class DNAStructure {
      * that DNA palindromes are different to typical English word palindromes.
      * Full marks: O(w) best-case, and O(wk) worst-case.
      * Again, k will be in the range [2, 13], and 2 <= k <= w
+     * As with countRepeats, k up to 64 is supported.
      */
     public boolean hasPalindrome(int k) {
         if (k < 2 || k > size) {
             return false;
         }
-        final int n = size;
-
-        // Build the first forward code of k bases
-        int forward = 0;
-        for (int i = 0; i < k; i++) {
-            int idx = (head + i) % width; //logical index
-            // encode first k bases into binary for comparison
-            forward = (forward << 2) | encode(window[idx]);
+        if (k < trackers.length && trackers[k] != null && trackers[k].palindromes) {
+            return trackers[k].palindromeCount > 0;
         }
-
-        // Build the first reverse complement encoding of the same position
-        int reverseComplement = 0;
-        final int topShift = 2 * (k - 1); // bit position of the topmost 2-bit lane
-        for (int i = 0; i < k; i++) {
-            int v = encode(window[(head + i) % width]);
-            // push in complements from the right
-            reverseComplement = (reverseComplement >>> 2) | (complementBase2(v) << topShift);
+        checkMaxK(k);
+        if ((k & 1) == 1) {
+            return false; // the middle base of an odd k-mer can never be its own complement
+        } else if (k > 32) {
+            return hasPalindromeWide(k);
+        } else if (k > INT_MAX_K) {
+            return hasPalindromeLong(k);
         }
-
-        // If first k-mer is a palindrome, we can return early
-        if (forward == reverseComplement) {
-            return true;
-        }
-
-
+        // roll the forward code and the reverse complement code together
         final int mask = (1 << (2 * k)) - 1; // same mask in countRepeat
-
-
-        for (int i = 1; i <= n - k; i++) { // same procedure to roll over the window as countRepeat
-            int inIdx = (head + i + k - 1) % width;
-            int inChar = encode(window[inIdx]);
-
+        final int topShift = 2 * (k - 1); // bit position of the topmost 2-bit lane
+        int forward = 0;
+        int reverseComplement = 0;
+        long bits = 0;
+        for (int i = 0; i < size; i++) {
+            if ((i & 31) == 0) {
+                bits = codes(i);
+            }
+            int inChar = (int) bits & 3;
+            bits >>>= 2;
             forward = ((forward << 2) & mask) | inChar;
+            // push in complements from the right
             reverseComplement = (reverseComplement >>> 2) | (complementBase2(inChar) << topShift);
+            if (i >= k - 1 && forward == reverseComplement) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-            if (forward == reverseComplement) {
+    /**
+     * hasPalindrome for 16 <= k <= 32 on long codes
+     */
+    private boolean hasPalindromeLong(int k) {
+        final long mask = longMask(k);
+        final int topShift = 2 * (k - 1);
+        long forward = 0;
+        long reverseComplement = 0;
+        long bits = 0;
+        for (int i = 0; i < size; i++) {
+            if ((i & 31) == 0) {
+                bits = codes(i);
+            }
+            int v = (int) bits & 3;
+            bits >>>= 2;
+            forward = ((forward << 2) & mask) | v;
+            reverseComplement = (reverseComplement >>> 2) | ((long) complementBase2(v) << topShift);
+            if (i >= k - 1 && forward == reverseComplement) {
                 return true;
             }
         }
+        return false;
+    }
 
+    /**
+     * hasPalindrome for 33 <= k <= 64 on (hi, lo) codes as in countRepeatsWide
+     */
+    private boolean hasPalindromeWide(int k) {
+        final long hiMask = longMask(k - 32);
+        final int topShift = 2 * (k - 1) - 64; // top lane of the reverse complement, inside hi
+        long hi = 0;
+        long lo = 0;
+        long rcHi = 0;
+        long rcLo = 0;
+        long bits = 0;
+        for (int i = 0; i < size; i++) {
+            if ((i & 31) == 0) {
+                bits = codes(i);
+            }
+            int v = (int) bits & 3;
+            bits >>>= 2;
+            hi = ((hi << 2) | (lo >>> 62)) & hiMask;
+            lo = (lo << 2) | v;
+            // 128-bit right shift by 2, then the complement enters at the top
+            rcLo = (rcLo >>> 2) | (rcHi << 62);
+            rcHi = (rcHi >>> 2) | ((long) complementBase2(v) << topShift);
+            if (i >= k - 1 && lo == rcLo && hi == rcHi) {
+                return true;
+            }
+        }
         return false;
     }
 
@@ -270,9 +901,20 @@ public class DNAStructure {
      * If the window is not full, just return the populated characters.
      */
     public String stringify() {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(size);
+        if (packed == null) {
+            for (int i = 0; i < size; i++) {
+                sb.append(window[(head + i) % width]);
+            }
+            return sb.toString();
+        }
+        long bits = 0;
         for (int i = 0; i < size; i++) {
-            sb.append(window[(head + i) % width]);
+            if ((i & 31) == 0) {
+                bits = codes(i);
+            }
+            sb.append(BASES[(int) bits & 3]);
+            bits >>>= 2;
         }
         return sb.toString();
     }
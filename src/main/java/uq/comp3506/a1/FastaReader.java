@@ -0,0 +1,260 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the bases of a FASTA or FASTQ file into a DNAStructure.
+ * The file is memory-mapped in chunks with FileChannel.map and scanned in
+ * place, so bases are never copied onto the heap and the file size is not
+ * limited by the heap size.
+ * Header lines ('>' or '@'), FASTQ '+' lines and quality lines are skipped,
+ * as are newlines. Lower case a/c/g/t are slid as upper case.
+ * <p>
+ * By default the window is cleared (DNAStructure.clear) at the start of
+ * every record and at every other symbol (N and the other IUPAC codes), so
+ * no k-mer ever spans two reads or a gap of unknown bases. With
+ * resetAtBreaks(false) those symbols are just skipped and the records are
+ * streamed back to back as one sequence.
+ */
+public class FastaReader {
+
+    /**
+     * Called every stride bases with countRepeats(k) of the window
+     */
+    public interface RepeatListener {
+        void onRepeats(long basesRead, int repeats);
+    }
+
+    /**
+     * Called every stride bases with hasPalindrome(k) of the window
+     */
+    public interface PalindromeListener {
+        void onPalindrome(long basesRead, boolean found);
+    }
+
+    /**
+     * bytes mapped at a time, well under the 2GB limit of a single mapping
+     */
+    private static final long CHUNK = 1L << 30;
+
+    // parser states, carried across chunk boundaries
+    private static final int LINE_START = 0;
+    private static final int HEADER = 1;
+    private static final int SEQUENCE = 2;
+    private static final int PLUS = 3;
+    private static final int QUALITY = 4;
+
+    private final Path path;
+    private int stride = 0;
+    private int k = 0;
+    private boolean resetAtBreaks = true;
+    private RepeatListener repeatListener;
+    private PalindromeListener palindromeListener;
+
+    // per-stream state
+    private DNAStructure dna;
+    private ByteBuffer view;
+    private int state;
+    private long recordLength;
+    private long qualityLeft;
+    private long basesRead;
+    private long nextStride;
+
+    /**
+     * Construct a reader for the FASTA/FASTQ file at path
+     */
+    public FastaReader(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Fire the given listeners (either may be null) every stride bases, using
+     * k for countRepeats and hasPalindrome. A stride of 0 turns them off.
+     * With a positive stride, k must be in [2, 64] (the largest k-mer
+     * DNAStructure can pack), otherwise an IllegalArgumentException is thrown.
+     */
+    public void onStride(int stride, int k, RepeatListener repeats,
+                         PalindromeListener palindromes) {
+        if (stride < 0) {
+            throw new IllegalArgumentException("stride must be >= 0");
+        }
+        if (stride > 0 && (k < 2 || k > DNAStructure.MAX_K)) {
+            throw new IllegalArgumentException("k must be in [2, " + DNAStructure.MAX_K + "]");
+        }
+        this.stride = stride;
+        this.k = k;
+        this.repeatListener = repeats;
+        this.palindromeListener = palindromes;
+    }
+
+    /**
+     * Whether to clear the window at each record start and non-ACGT symbol
+     * (the default), or stream straight across them
+     */
+    public void resetAtBreaks(boolean reset) {
+        this.resetAtBreaks = reset;
+    }
+
+    /**
+     * Slide every base of the file into dna, returning how many were slid
+     */
+    public long streamInto(DNAStructure dna) throws IOException {
+        this.dna = dna;
+        this.state = LINE_START;
+        this.recordLength = 0;
+        this.qualityLeft = 0;
+        this.basesRead = 0;
+        this.nextStride = stride == 0 ? Long.MAX_VALUE : stride;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            for (long pos = 0; pos < fileSize; pos += CHUNK) {
+                scanChunk(channel, pos, (int) Math.min(CHUNK, fileSize - pos));
+            }
+        } finally {
+            this.dna = null;
+        }
+        return basesRead;
+    }
+
+    /**
+     * map and scan the len bytes at pos. The mapping is only referenced
+     * from this frame and view, and view is cleared on the way out, so each
+     * 1GB chunk can be unmapped as soon as it has been scanned instead of
+     * every chunk of the file staying mapped until the stream ends.
+     */
+    private void scanChunk(FileChannel channel, long pos, int len) throws IOException {
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+        // a second view over the same pages for slideAll to move position/limit on
+        view = chunk.duplicate();
+        try {
+            scan(chunk, len);
+        } finally {
+            view = null;
+        }
+    }
+
+    /**
+     * run the parser over one mapped chunk of n bytes
+     */
+    private void scan(ByteBuffer buf, int n) {
+        int i = 0;
+        while (i < n) {
+            byte b = buf.get(i);
+            if (state == HEADER || state == PLUS) {
+                int nl = lineEnd(buf, i, n);
+                if (nl == n) {
+                    return;
+                }
+                i = nl + 1;
+                if (state == HEADER) {
+                    recordLength = 0;
+                    state = LINE_START;
+                } else {
+                    qualityLeft = recordLength;
+                    state = qualityLeft == 0 ? LINE_START : QUALITY;
+                }
+            } else if (state == QUALITY) {
+                // quality lines may start with '@' or '+', so count them off by length
+                if (b != '\n' && b != '\r' && --qualityLeft == 0) {
+                    state = LINE_START;
+                }
+                i++;
+            } else if (state == LINE_START) {
+                if (b == '>' || b == '@' || b == ';') {
+                    if (b != ';' && resetAtBreaks) {
+                        dna.clear(); // a new record (';' is only a comment)
+                    }
+                    state = HEADER;
+                    i++;
+                } else if (b == '+') {
+                    state = PLUS;
+                    i++;
+                } else if (b == '\n' || b == '\r') {
+                    i++;
+                } else {
+                    state = SEQUENCE;
+                }
+            } else {
+                int e = lineEnd(buf, i, n);
+                recordLength += e - i;
+                slideLine(buf, i, e);
+                i = e;
+                if (e < n) {
+                    state = LINE_START;
+                }
+            }
+        }
+    }
+
+    /**
+     * index of the first '\n' or '\r' at or after from, or n if none
+     */
+    private static int lineEnd(ByteBuffer buf, int from, int n) {
+        int i = from;
+        while (i < n) {
+            byte b = buf.get(i);
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+            i++;
+        }
+        return n;
+    }
+
+    /**
+     * slide the sequence bytes in [from, to); runs of upper case ACGT go
+     * through DNAStructure.slideAll straight off the mapped pages
+     */
+    private void slideLine(ByteBuffer buf, int from, int to) {
+        int i = from;
+        while (i < to) {
+            int run = i;
+            long room = nextStride - basesRead;
+            while (run < to && run - i < room && isUpperBase(buf.get(run))) {
+                run++;
+            }
+            if (run > i) {
+                view.limit(run);
+                view.position(i);
+                dna.slideAll(view);
+                basesRead += run - i;
+                i = run;
+            } else {
+                byte b = buf.get(i++);
+                if (!isUpperBase((byte) (b & ~0x20))) {
+                    // N or another non-ACGT symbol
+                    if (resetAtBreaks) {
+                        dna.clear();
+                    }
+                    continue;
+                }
+                dna.slide((char) (b & ~0x20));
+                basesRead++;
+            }
+            if (basesRead == nextStride) {
+                fireStride();
+            }
+        }
+    }
+
+    private static boolean isUpperBase(byte b) {
+        return b == 'A' || b == 'C' || b == 'G' || b == 'T';
+    }
+
+    private void fireStride() {
+        nextStride += stride;
+        if (repeatListener != null) {
+            repeatListener.onRepeats(basesRead, dna.countRepeats(k));
+        }
+        if (palindromeListener != null) {
+            palindromeListener.onPalindrome(basesRead, dna.hasPalindrome(k));
+        }
+    }
+}
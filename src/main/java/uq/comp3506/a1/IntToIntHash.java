@@ -0,0 +1,95 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1;
+
+/**
+ * hash table that stores int key:int value
+ * used for storing encode(k-mers):frequency for fast look up
+ * (k-mers of up to 15 bases, DNAStructure.INT_MAX_K; longer ones go to
+ * LongToIntHash)
+ * Grows like LongToIntHash, up to LongToIntHash.MAX_CAPACITY slots.
+ */
+final class IntToIntHash {
+    int mask;
+    int cap;
+    int shift;
+    int[] keys;
+    int[] vals;
+    boolean[] used;
+    int size;
+
+    IntToIntHash(int capacityPow2) {
+        allocate(capacityPow2);
+    }
+
+    private void allocate(int capacityPow2) {
+        this.cap = capacityPow2;
+        this.mask = cap - 1; // 01111111......1111 len of log2(cap)
+        this.shift = 32 - Integer.numberOfTrailingZeros(cap);
+        this.keys = new int[cap];
+        this.vals = new int[cap];
+        this.used = new boolean[cap];
+        this.size = 0;
+    }
+
+    /**
+     * double the capacity and re-insert every key, as in LongToIntHash
+     */
+    private void grow() {
+        if (cap == LongToIntHash.MAX_CAPACITY) {
+            LongToIntHash.checkRoom(size, cap);
+            return;
+        }
+        final int[] oldKeys = keys;
+        final int[] oldVals = vals;
+        final boolean[] oldUsed = used;
+        allocate(cap * 2);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int j = slot(oldKeys[i]);
+                while (used[j]) {
+                    j = (j + 1) & mask;
+                }
+                used[j] = true;
+                keys[j] = oldKeys[i];
+                vals[j] = oldVals[i];
+                size++;
+            }
+        }
+    }
+
+    /**
+     * home slot of key k: Fibonacci hashing, so k-mers that only differ in
+     * their oldest bases (the high bits) still spread over the table
+     */
+    int slot(int k) {
+        return (k * 0x9E3779B9) >>> shift;
+    }
+
+    void clear() {
+        for (int i = 0; i < cap; i++) {
+            used[i] = false;
+        }
+        size = 0;
+    }
+
+    /**
+     * add one to the count of key k (inserting it at 1), returns the new count
+     */
+    int increment(int k) {
+        int i = slot(k);
+        while (used[i]) {
+            if (keys[i] == k) {
+                return ++vals[i];
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = k;
+        vals[i] = 1;
+        if (++size * 2 > cap) {
+            grow();
+        }
+        return 1;
+    }
+}
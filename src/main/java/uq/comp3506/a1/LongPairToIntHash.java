@@ -0,0 +1,98 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1;
+
+/**
+ * hash table that stores (long, long) key:int value
+ * used for storing encode(k-mers):frequency of k-mers of 33 to 64 bases,
+ * where hi holds the oldest bases and lo the newest 32
+ * Grows like LongToIntHash, up to LongToIntHash.MAX_CAPACITY slots.
+ */
+final class LongPairToIntHash {
+    int mask;
+    int cap;
+    int shift;
+    long[] his;
+    long[] los;
+    int[] vals;
+    boolean[] used;
+    int size;
+
+    LongPairToIntHash(int capacityPow2) {
+        allocate(capacityPow2);
+    }
+
+    private void allocate(int capacityPow2) {
+        this.cap = capacityPow2;
+        this.mask = cap - 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(cap);
+        this.his = new long[cap];
+        this.los = new long[cap];
+        this.vals = new int[cap];
+        this.used = new boolean[cap];
+        this.size = 0;
+    }
+
+    /**
+     * double the capacity and re-insert every key, as in LongToIntHash
+     */
+    private void grow() {
+        if (cap == LongToIntHash.MAX_CAPACITY) {
+            LongToIntHash.checkRoom(size, cap);
+            return;
+        }
+        final long[] oldHis = his;
+        final long[] oldLos = los;
+        final int[] oldVals = vals;
+        final boolean[] oldUsed = used;
+        allocate(cap * 2);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int j = slot(oldHis[i], oldLos[i]);
+                while (used[j]) {
+                    j = (j + 1) & mask;
+                }
+                used[j] = true;
+                his[j] = oldHis[i];
+                los[j] = oldLos[i];
+                vals[j] = oldVals[i];
+                size++;
+            }
+        }
+    }
+
+    /**
+     * home slot of key (hi, lo): fold hi into lo, then Fibonacci hashing
+     */
+    int slot(long hi, long lo) {
+        return (int) (((lo ^ (hi * 0xC2B2AE3D27D4EB4FL)) * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    void clear() {
+        for (int i = 0; i < cap; i++) {
+            used[i] = false;
+        }
+        size = 0;
+    }
+
+    /**
+     * add one to the count of key (hi, lo) (inserting it at 1), returns the new count
+     */
+    int increment(long hi, long lo) {
+        int i = slot(hi, lo);
+        while (used[i]) {
+            if (los[i] == lo && his[i] == hi) {
+                return ++vals[i];
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        his[i] = hi;
+        los[i] = lo;
+        vals[i] = 1;
+        if (++size * 2 > cap) {
+            grow();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,152 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1;
+
+/**
+ * hash table that stores long key:int value
+ * used for storing encode(k-mers):frequency of k-mers of up to 32 bases,
+ * and for the live counts kept by DNAStructure.trackRepeats
+ * The table doubles once it is half full, so callers that cannot bound the
+ * number of keys up front (ParallelRepeats) can start it small.
+ * It stops doubling at MAX_CAPACITY slots and throws an IllegalStateException
+ * rather than take its last free slot, so a probe always ends.
+ */
+final class LongToIntHash {
+    /**
+     * largest capacity of any of the k-mer tables (IntToIntHash and
+     * LongPairToIntHash too): the biggest power of two an int holds
+     */
+    static final int MAX_CAPACITY = 1 << 30;
+
+    int mask;
+    int cap;
+    int shift;
+    long[] keys;
+    int[] vals;
+    boolean[] used;
+    int size;
+
+    LongToIntHash(int capacityPow2) {
+        allocate(capacityPow2);
+    }
+
+    private void allocate(int capacityPow2) {
+        this.cap = capacityPow2;
+        this.mask = cap - 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(cap);
+        this.keys = new long[cap];
+        this.vals = new int[cap];
+        this.used = new boolean[cap];
+        this.size = 0;
+    }
+
+    /**
+     * double the capacity and re-insert every key
+     */
+    private void grow() {
+        if (cap == MAX_CAPACITY) {
+            checkRoom(size, cap);
+            return;
+        }
+        final long[] oldKeys = keys;
+        final int[] oldVals = vals;
+        final boolean[] oldUsed = used;
+        allocate(cap * 2);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                add(oldKeys[i], oldVals[i]);
+            }
+        }
+    }
+
+    /**
+     * for a table of MAX_CAPACITY slots holding size keys: throws once only
+     * one slot is left free, which keeps every probe loop finite
+     */
+    static void checkRoom(int size, int cap) {
+        if (size >= cap - 1) {
+            throw new IllegalStateException("More than " + (cap - 2) + " distinct k-mers.");
+        }
+    }
+
+    /**
+     * home slot of key k, Fibonacci hashing as in IntToIntHash
+     */
+    int slot(long k) {
+        return (int) ((k * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    void clear() {
+        for (int i = 0; i < cap; i++) {
+            used[i] = false;
+        }
+        size = 0;
+    }
+
+    /**
+     * add one to the count of key k (inserting it at 1), returns the new count
+     */
+    int increment(long k) {
+        return add(k, 1);
+    }
+
+    /**
+     * add n to the count of key k (inserting it at n), returns the new count
+     */
+    int add(long k, int n) {
+        int i = slot(k);
+        while (used[i]) {
+            if (keys[i] == k) {
+                vals[i] += n;
+                return vals[i];
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = k;
+        vals[i] = n;
+        if (++size * 2 > cap) {
+            grow();
+        }
+        return n;
+    }
+
+    /**
+     * take one off the count of key k, removing it once it hits 0
+     * returns the new count (k must be present)
+     */
+    int decrement(long k) {
+        int i = slot(k);
+        while (keys[i] != k || !used[i]) {
+            i = (i + 1) & mask;
+        }
+        int v = --vals[i];
+        if (v == 0) {
+            removeSlot(i);
+        }
+        return v;
+    }
+
+    /**
+     * backward-shift deletion so probe chains stay unbroken without tombstones
+     */
+    private void removeSlot(int hole) {
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            if (!used[j]) {
+                break;
+            }
+            int home = slot(keys[j]);
+            // the entry at j may fill the hole only if its home is not in (hole, j]
+            boolean stays = hole < j ? (home > hole && home <= j) : (home > hole || home <= j);
+            if (!stays) {
+                keys[hole] = keys[j];
+                vals[hole] = vals[j];
+                hole = j;
+            }
+        }
+        used[hole] = false;
+        size--;
+    }
+}
@@ -0,0 +1,181 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join version of DNAStructure.countRepeats for very wide windows
+ * (k up to 32, so every k-mer fits in a long code).
+ * Phase 1 splits the window into chunks; a chunk counts the k-mers that
+ * start inside it, reading k - 1 bases past its end so k-mers crossing a
+ * boundary are seen exactly once. Each chunk keeps its own tables, one per
+ * key partition, so no counting is shared between threads.
+ * Phase 2 merges the tables of each partition across all chunks in
+ * parallel. A k-mer always lands in the same partition, so each merged
+ * partition holds exact totals and the repeats are summed over partitions.
+ */
+final class ParallelRepeats {
+
+    /**
+     * windows with fewer k-mers than this per worker are not worth splitting
+     */
+    static final int MIN_CHUNK = 1 << 16;
+
+    private final DNAStructure dna;
+    private final int k;
+    private final long mask;
+    private final int head;
+    private final int width;
+    private final int numKmers;
+    private final int chunks;
+    private final int partitionBits;
+    private final LongToIntHash[][] tables; // [chunk][partition]
+
+    private ParallelRepeats(DNAStructure dna, int k, int head, int width, int size, int workers) {
+        this.dna = dna;
+        this.k = k;
+        this.mask = k == 32 ? -1L : (1L << (2 * k)) - 1;
+        this.head = head;
+        this.width = width;
+        this.numKmers = size - k + 1;
+        this.chunks = Math.max(1, Math.min(workers, numKmers / MIN_CHUNK));
+        // at least as many partitions as workers, as a power of 2
+        int bits = 0;
+        while ((1 << bits) < workers) {
+            bits++;
+        }
+        this.partitionBits = bits;
+        this.tables = new LongToIntHash[chunks][1 << bits];
+    }
+
+    /**
+     * countRepeats(k) of the size bases starting at physical index head,
+     * computed on pool
+     */
+    static int count(DNAStructure dna, int k, int head, int width, int size, ForkJoinPool pool) {
+        ParallelRepeats job = new ParallelRepeats(dna, k, head, width, size, pool.getParallelism());
+        pool.invoke(job.new Tally(0, job.chunks));
+        return pool.invoke(job.new Merge(0, 1 << job.partitionBits));
+    }
+
+    /**
+     * which partition a k-mer code belongs to; uses a different multiplier
+     * from LongToIntHash.slot so keys within a partition still spread out
+     */
+    private int partition(long code) {
+        if (partitionBits == 0) {
+            return 0;
+        }
+        return (int) ((code * 0xC2B2AE3D27D4EB4FL) >>> (64 - partitionBits));
+    }
+
+    /**
+     * count the k-mers starting in chunk c into tables[c]
+     */
+    private void tallyChunk(int c) {
+        final int parts = 1 << partitionBits;
+        final int from = (int) ((long) numKmers * c / chunks);
+        final int to = (int) ((long) numKmers * (c + 1) / chunks);
+        final LongToIntHash[] mine = tables[c];
+        // tables grow on demand, so start each at its even share
+        final int initial = (int) Math.min(LongToIntHash.MAX_CAPACITY,
+                Long.highestOneBit(Math.max(8, 2L * (to - from) / parts)) << 1);
+        for (int i = 0; i < parts; i++) {
+            mine[i] = new LongToIntHash(initial);
+        }
+        long code = 0;
+        long bits = 0;
+        for (int i = from; i < to + k - 1; i++) {
+            if (((i - from) & 31) == 0) {
+                bits = dna.codesAt((int) (((long) head + i) % width));
+            }
+            code = ((code << 2) & mask) | (bits & 3);
+            bits >>>= 2;
+            if (i >= from + k - 1) {
+                mine[partition(code)].increment(code);
+            }
+        }
+    }
+
+    /**
+     * merge partition q across all chunks and return its repeats
+     */
+    private int mergePartition(int q) {
+        long total = 0;
+        for (int c = 0; c < chunks; c++) {
+            total += tables[c][q].size;
+        }
+        final int capacity = (int) Math.min(LongToIntHash.MAX_CAPACITY,
+                Long.highestOneBit(Math.max(4, total)) << 2);
+        final LongToIntHash merged = new LongToIntHash(capacity);
+        int repeats = 0;
+        for (int c = 0; c < chunks; c++) {
+            LongToIntHash t = tables[c][q];
+            for (int i = 0; i < t.cap; i++) {
+                if (!t.used[i]) {
+                    continue;
+                }
+                int before = merged.add(t.keys[i], t.vals[i]) - t.vals[i];
+                // a key becomes a repeat when its running total first reaches 2
+                if (before < 2 && before + t.vals[i] >= 2) {
+                    repeats++;
+                }
+            }
+            tables[c][q] = null; // let the chunk table go as soon as it is merged
+        }
+        return repeats;
+    }
+
+    /**
+     * phase 1 over chunks [lo, hi)
+     */
+    private final class Tally extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int lo;
+        private final int hi;
+
+        Tally(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                tallyChunk(lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Tally(lo, mid), new Tally(mid, hi));
+        }
+    }
+
+    /**
+     * phase 2 over partitions [lo, hi), returning their total repeats
+     */
+    private final class Merge extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        private final int lo;
+        private final int hi;
+
+        Merge(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (hi - lo == 1) {
+                return mergePartition(lo);
+            }
+            int mid = (lo + hi) >>> 1;
+            Merge left = new Merge(lo, mid);
+            left.fork();
+            int right = new Merge(mid, hi).compute();
+            return left.join() + right;
+        }
+    }
+}
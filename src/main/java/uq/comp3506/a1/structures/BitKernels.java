@@ -0,0 +1,73 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+/**
+ * The word loops behind BitVector's bulk operations, picked once at start
+ * up: VectorBitKernels (jdk.incubator.vector) when the JVM was started with
+ * --add-modules jdk.incubator.vector, and ScalarBitKernels otherwise. Setting
+ * -Duq.comp3506.a1.scalarKernels=true forces the scalar loops, e.g. to
+ * compare the two in a benchmark.
+ * <p>
+ * The vector class is only ever loaded by name, so BitVector still links
+ * and runs when the incubator module is missing.
+ */
+abstract class BitKernels {
+
+    static final int AND = 0;
+    static final int OR = 1;
+    static final int XOR = 2;
+    static final int AND_NOT = 3;
+
+    static final BitKernels INSTANCE = select();
+
+    private static BitKernels select() {
+        if (Boolean.getBoolean("uq.comp3506.a1.scalarKernels")
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new ScalarBitKernels();
+        }
+        try {
+            Class<?> vector = Class.forName("uq.comp3506.a1.structures.VectorBitKernels");
+            if (!(Boolean) vector.getDeclaredMethod("isUsable").invoke(null)) {
+                return new ScalarBitKernels();
+            }
+            return (BitKernels) vector.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // the module is there but its classes would not link on this JVM
+            return new ScalarBitKernels();
+        }
+    }
+
+    /**
+     * name of the implementation in use, for benchmarks and logs
+     */
+    abstract String name();
+
+    /**
+     * a[i] = ~a[i] for i in [from, to)
+     */
+    abstract void not(long[] a, int from, int to);
+
+    /**
+     * dst[i] = a[i] op b[i] for i in [0, n), op one of AND, OR, XOR, AND_NOT;
+     * dst may be a
+     */
+    abstract void combine(int op, long[] dst, long[] a, long[] b, int n);
+
+    /**
+     * total Long.bitCount of a[from, to)
+     */
+    abstract long popcount(long[] a, int from, int to);
+
+    /**
+     * the in-place word loop of BitVector.shift for a left shift of
+     * wordShift words and bitShift (0 to 63) bits over the first words
+     * words; no tail masking
+     */
+    abstract void shiftLeft(long[] a, int words, int wordShift, int bitShift);
+
+    /**
+     * as shiftLeft, for a right shift
+     */
+    abstract void shiftRight(long[] a, int words, int wordShift, int bitShift);
+}
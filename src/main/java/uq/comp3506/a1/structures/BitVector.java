@@ -2,7 +2,12 @@
 
 package uq.comp3506.a1.structures;
 
+import java.io.IOException;
 import java.lang.Math;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
 /**
  * Supplied by the COMP3506/7505 teaching team, Semester 2, 2025.
  */
@@ -27,7 +32,18 @@ public class BitVector {
      * We use 'long' instead of 'int' to store elements because it can fit
      * 64 bits instead of 32
      */
-    private long[] data;
+    private final long[] data;
+
+    /**
+     * data as LongWords, for the shift and rotate in WordAlgorithms
+     */
+    private final LongWords wordView;
+
+    /**
+     * Rank/select directory over data, built on the first rank1/select1 call
+     * and dropped (set to null) by anything that changes a bit
+     */
+    private RankSelectIndex rankIndex;
 
     /**
      * Constructs a bitvector, pre-allocating enough memory to store `size` bits
@@ -40,7 +56,35 @@ public class BitVector {
         this.capacity = Math.ceilDiv(size, BitsPerElement) * BitsPerElement;
         int words = (int) (capacity / BitsPerElement);
         data = new long[words];
+        wordView = new LongWords.OfArray(data);
+
+    }
+
+    /**
+     * Map the file at path as a bitvector of size bits (see MappedBitVector
+     * for the format), creating it if needed. Reopening an existing file is
+     * instant since the words are paged in on demand; call force() on the
+     * result for a durable checkpoint and close() to unmap it.
+     */
+    public static MappedBitVector mapFile(Path path, long size) throws IOException {
+        return MappedBitVector.map(path, size);
+    }
 
+    /**
+     * Write this bitvector to ch in a compact form (see BitVectorCodec): the
+     * raw words, the runs of set bits or the positions of the set bits,
+     * whichever the popcount and number of runs say is smallest.
+     */
+    public void writeTo(WritableByteChannel ch) throws IOException {
+        BitVectorCodec.write(this, ch);
+    }
+
+    /**
+     * Read a bitvector written by writeTo from ch.
+     * Throws an IOException if the stream ends early or is not in that format.
+     */
+    public static BitVector readFrom(ReadableByteChannel ch) throws IOException {
+        return BitVectorCodec.read(ch);
     }
 
     /**
@@ -57,6 +101,19 @@ public class BitVector {
         return capacity;
     }
 
+    /**
+     * the backing words, for the other structures in this package; anything
+     * that writes to them must call wordsChanged() afterwards and keep the
+     * tail bits 0
+     */
+    long[] words() {
+        return data;
+    }
+
+    void wordsChanged() {
+        rankIndex = null;
+    }
+
     private void checkBounds(long idx) {
         if (idx < 0 || idx >= size) {
             throw new IndexOutOfBoundsException("Index " + idx + " is out of bounds.");
@@ -101,6 +158,7 @@ public class BitVector {
     public void set(long ix) {
         checkBounds(ix);
         data[index_word(ix)] |= index_mask(ix);
+        rankIndex = null;
     }
 
     /**
@@ -110,9 +168,78 @@ public class BitVector {
     public void unset(long ix) {
         checkBounds(ix);
         data[index_word(ix)] &= ~index_mask(ix);
+        rankIndex = null;
 
     }
 
+    /**
+     * Set every bit in [from, to)
+     * Whole words are filled directly; only the two edge words are masked.
+     * If the range is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void set(long from, long to) {
+        checkRange(from, to);
+        if (from == to) {
+            return;
+        }
+        rankIndex = null;
+        int first = index_word(from);
+        int last = index_word(to - 1);
+        if (first == last) {
+            data[first] |= rangeMask(first, from, to);
+            return;
+        }
+        data[first] |= rangeMask(first, from, to);
+        for (int i = first + 1; i < last; i++) {
+            data[i] = ~0L;
+        }
+        data[last] |= rangeMask(last, from, to);
+    }
+
+    /**
+     * Unset every bit in [from, to)
+     * If the range is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void unset(long from, long to) {
+        checkRange(from, to);
+        if (from == to) {
+            return;
+        }
+        rankIndex = null;
+        int first = index_word(from);
+        int last = index_word(to - 1);
+        if (first == last) {
+            data[first] &= ~rangeMask(first, from, to);
+            return;
+        }
+        data[first] &= ~rangeMask(first, from, to);
+        for (int i = first + 1; i < last; i++) {
+            data[i] = 0L;
+        }
+        data[last] &= ~rangeMask(last, from, to);
+    }
+
+    /**
+     * Flip every bit in [from, to), so flip(0, size()) is the same as complement()
+     * If the range is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void flip(long from, long to) {
+        checkRange(from, to);
+        if (from == to) {
+            return;
+        }
+        rankIndex = null;
+        int first = index_word(from);
+        int last = index_word(to - 1);
+        if (first == last) {
+            data[first] ^= rangeMask(first, from, to);
+            return;
+        }
+        data[first] ^= rangeMask(first, from, to);
+        BitKernels.INSTANCE.not(data, first + 1, last);
+        data[last] ^= rangeMask(last, from, to);
+    }
+
     /**
      * Convert the BitVector to its complement
      * That means, all 1's become 0's and all 0's become 1's
@@ -121,12 +248,9 @@ public class BitVector {
         if (size == 0) {
             return;
         }
-        for (int i = 0; i < capacity / BitsPerElement; i++) {
-            data[i] = ~data[i];
-        }
-        long mask = getTailMask();
-        data[(int) capacity / BitsPerElement - 1] &= mask;
-
+        rankIndex = null;
+        BitKernels.INSTANCE.not(data, 0, data.length);
+        data[data.length - 1] &= getTailMask();
     }
 
 
@@ -151,59 +275,12 @@ public class BitVector {
             return;
 
         }
-        if (dist >= size || dist <= -size) {
-            for (int i = 0; i < capacity / BitsPerElement; i++) {
-                data[i] = 0L;
-            }
-            return;
-        }
-
-        int words = (int) (capacity / BitsPerElement);
-
-        long[] temp = new long[(int) (words)];
-        long[] source = data;
-
-        if (dist > 0) { // left shift
-
-            int wordShift = (int) (dist / BitsPerElement);
-            int bitShift = (int) (dist % BitsPerElement);
-
-            for (int i = 0; i < words; i++) {
-                if (i + wordShift >= 0 && i + wordShift  < words) {
-                    temp[i + wordShift] |= (source[i] << bitShift);
-                    if (bitShift != 0) {
-                        if (i + wordShift + 1 >= 0 && i + wordShift + 1 < words) {
-                            //unsigned right shift for zeros on the left
-                            temp[i + wordShift + 1] |= source[i] >>> (BitsPerElement - bitShift);
-                        }
-                    }
-
-                }
-            }
-
-        } else {
-            int wordShift = (int) (-dist / BitsPerElement);
-            int bitShift = (int) (-dist % BitsPerElement);
-            for (int i = 0; i < words; i++) {
-                if (i - wordShift >= 0 && i - wordShift < words) {
-                    //unsigned right shift for zeros on the left
-                    temp[i - wordShift] |= (source[i] >>> bitShift);
-                }
-                if (bitShift != 0) {
-                    if (i - wordShift - 1 >= 0 && i - wordShift - 1 < words) {
-                        temp[i - wordShift - 1] |= (source[i] << (BitsPerElement - bitShift));
-                    }
-                }
-            }
-
-        }
-        if (words > 0) {
-            temp[words - 1] &= getTailMask();
-        }
-        data = temp;
-
+        rankIndex = null;
+        // in place: a left shift only reads words below the one it is
+        // writing, so it sweeps from the top down; a right shift sweeps up
+        WordAlgorithms.shift(wordView, size, dist);
     }
- 
+
     /**
      * Rotate the bits `dist` positions
      * If dist is positive, this is a left rotation, assuming the least significant
@@ -222,60 +299,349 @@ public class BitVector {
      * these will invoke a right shift.
      */
     public void rotate(long dist) {
-        if (size == 0) {
-            return;
+        // the smaller wrapped side is copied out, the rest shifted, and the
+        // copy funnelled back in at the other end (see WordAlgorithms)
+        if (WordAlgorithms.rotate(wordView, size, dist)) {
+            rankIndex = null;
         }
+    }
 
-        // brings the dist down to in between 0 and size, negatives are just size - norm_dist
-        long normDist = dist % size;
-        if (dist < 0) {
-            normDist += size;
+    /**
+     * COMP7505 only (COMP3506 may do this for fun)
+     * Returns the number of bits that are set to 1 across the entire bitvector
+     */
+    public long popcount() {
+        return popcount(0, size);
+    }
+
+    /**
+     * Returns the number of bits set to 1 in [from, to)
+     * Whole words are counted by BitKernels (POPCNT per word, or per vector
+     * lane), only the two edge words are masked.
+     * If the range is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public long popcount(long from, long to) {
+        checkRange(from, to);
+        if (from == to) {
+            return 0;
         }
-        if (normDist == 0) {
-            return;
+        int first = index_word(from);
+        int last = index_word(to - 1);
+        if (first == last) {
+            return Long.bitCount(data[first] & rangeMask(first, from, to));
         }
+        long count = Long.bitCount(data[first] & rangeMask(first, from, to))
+                + Long.bitCount(data[last] & rangeMask(last, from, to));
+        return count + BitKernels.INSTANCE.popcount(data, first + 1, last);
+    }
 
-        int words = (int) (capacity / BitsPerElement);
-        long[] temp = new long[(int) (words)];
-        long[] source = data;
-
-
-        for (long i = 0; i < size; i++) {
-            int sourceWords = (int) (i / BitsPerElement);
-            int sourceOff  = (int) (i % BitsPerElement);
-            if (((source[sourceWords] >>> sourceOff) & 1L) != 0L) {
-                long j = (i + normDist) % size;
-                int dstWord = (int) (j / BitsPerElement);
-                int dstOff  = (int) (j % BitsPerElement);
-                temp[dstWord] |= (1L << dstOff);
+    /**
+     * COMP7505 only (COMP3506 may do this for fun)
+     * Returns the length of the longest run of bits that are set (1) across
+     * the entire bitvector
+     */
+    public long runcount() {
+        return runcount(0, size);
+    }
+
+    /**
+     * Returns the length of the longest run of set bits inside [from, to)
+     * Run boundaries in a word x are the set bits of x ^ (x << 1), with the
+     * top bit of the previous word carried into bit 0, so a word costs O(1)
+     * plus O(1) per boundary in it, and all-0 or all-1 words cost nothing extra.
+     * If the range is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public long runcount(long from, long to) {
+        checkRange(from, to);
+        if (from == to) {
+            return 0;
+        }
+        int first = index_word(from);
+        int last = index_word(to - 1);
+        long best = 0;
+        long runStart = 0;
+        long carry = 0;
+        for (int i = first; i <= last; i++) {
+            long x = data[i] & rangeMask(i, from, to);
+            long boundaries = x ^ ((x << 1) | carry);
+            carry = x >>> (BitsPerElement - 1);
+            while (boundaries != 0) {
+                int bit = Long.numberOfTrailingZeros(boundaries);
+                long pos = (long) i * BitsPerElement + bit;
+                if (((x >>> bit) & 1L) != 0) {
+                    runStart = pos; // 0 -> 1, a run begins
+                } else {
+                    best = Math.max(best, pos - runStart); // 1 -> 0, it ended before pos
+                }
+                boundaries &= boundaries - 1;
             }
         }
+        if (carry != 0) {
+            // still inside a run at the end of the last word (so to is word aligned)
+            best = Math.max(best, (long) (last + 1) * BitsPerElement - runStart);
+        }
+        return best;
+    }
+
+    /**
+     * Keep only the bits that are also set in other (this = this & other)
+     * The bulk operations below work a whole word at a time through
+     * BitKernels, on LongVector lanes when jdk.incubator.vector is available.
+     * The unused tail bits are 0 in both operands and 0 op 0 is 0 for all of
+     * them, so the tail stays masked.
+     * If the sizes differ, you should throw an IllegalArgumentException
+     */
+    public void and(BitVector other) {
+        checkSameSize(this, other);
+        rankIndex = null;
+        BitKernels.INSTANCE.combine(BitKernels.AND, data, data, other.data, data.length);
+    }
+
+    /**
+     * Set every bit that is set in other (this = this | other)
+     */
+    public void or(BitVector other) {
+        checkSameSize(this, other);
+        rankIndex = null;
+        BitKernels.INSTANCE.combine(BitKernels.OR, data, data, other.data, data.length);
+    }
+
+    /**
+     * Flip every bit that is set in other (this = this ^ other)
+     */
+    public void xor(BitVector other) {
+        checkSameSize(this, other);
+        rankIndex = null;
+        BitKernels.INSTANCE.combine(BitKernels.XOR, data, data, other.data, data.length);
+    }
 
-        if (words > 0) {
-            temp[words - 1] &= getTailMask();
+    /**
+     * Unset every bit that is set in other (this = this & ~other)
+     */
+    public void andNot(BitVector other) {
+        checkSameSize(this, other);
+        rankIndex = null;
+        BitKernels.INSTANCE.combine(BitKernels.AND_NOT, data, data, other.data, data.length);
+    }
+
+    /**
+     * Returns a new bitvector holding a & b, leaving both unchanged
+     * If the sizes differ, you should throw an IllegalArgumentException
+     */
+    public static BitVector and(BitVector a, BitVector b) {
+        checkSameSize(a, b);
+        BitVector r = new BitVector(a.size);
+        BitKernels.INSTANCE.combine(BitKernels.AND, r.data, a.data, b.data, r.data.length);
+        return r;
+    }
+
+    /**
+     * Returns a new bitvector holding a | b, leaving both unchanged
+     */
+    public static BitVector or(BitVector a, BitVector b) {
+        checkSameSize(a, b);
+        BitVector r = new BitVector(a.size);
+        BitKernels.INSTANCE.combine(BitKernels.OR, r.data, a.data, b.data, r.data.length);
+        return r;
+    }
+
+    /**
+     * Returns a new bitvector holding a ^ b, leaving both unchanged
+     */
+    public static BitVector xor(BitVector a, BitVector b) {
+        checkSameSize(a, b);
+        BitVector r = new BitVector(a.size);
+        BitKernels.INSTANCE.combine(BitKernels.XOR, r.data, a.data, b.data, r.data.length);
+        return r;
+    }
+
+    /**
+     * Returns a new bitvector holding a & ~b, leaving both unchanged
+     */
+    public static BitVector andNot(BitVector a, BitVector b) {
+        checkSameSize(a, b);
+        BitVector r = new BitVector(a.size);
+        BitKernels.INSTANCE.combine(BitKernels.AND_NOT, r.data, a.data, b.data, r.data.length);
+        return r;
+    }
+
+    private static void checkSameSize(BitVector a, BitVector b) {
+        if (a.size != b.size) {
+            throw new IllegalArgumentException(
+                    "Sizes differ: " + a.size + " and " + b.size + ".");
+        }
+    }
+
+    /**
+     * Returns the index of the first set bit at or after from, or -1 if there
+     * is none. Empty words are skipped whole and the bit inside a word is
+     * found with Long.numberOfTrailingZeros, so sparse vectors scan quickly.
+     * A from of size or more returns -1; a negative from throws an
+     * IndexOutOfBoundsException
+     */
+    public long nextSetBit(long from) {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("Index " + from + " is out of bounds.");
+        }
+        if (from >= size) {
+            return -1;
+        }
+        int w = index_word(from);
+        long word = data[w] & (~0L << (from % BitsPerElement));
+        while (word == 0) {
+            if (++w == data.length) {
+                return -1;
+            }
+            word = data[w];
         }
-        data = temp;
+        // the tail bits are always 0, so this is below size
+        return (long) w * BitsPerElement + Long.numberOfTrailingZeros(word);
+    }
 
+    /**
+     * Returns the index of the first unset bit at or after from, or -1 if
+     * every bit in [from, size) is set. Full words are skipped whole.
+     * A from of size or more returns -1; a negative from throws an
+     * IndexOutOfBoundsException
+     */
+    public long nextClearBit(long from) {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("Index " + from + " is out of bounds.");
+        }
+        if (from >= size) {
+            return -1;
+        }
+        int w = index_word(from);
+        long word = ~data[w] & (~0L << (from % BitsPerElement));
+        while (word == 0) {
+            if (++w == data.length) {
+                return -1;
+            }
+            word = ~data[w];
+        }
+        // the unused tail bits read as clear, so check against size
+        long ix = (long) w * BitsPerElement + Long.numberOfTrailingZeros(word);
+        return ix < size ? ix : -1;
+    }
 
+    /**
+     * Returns the index of the last set bit at or before from, or -1 if there
+     * is none. A from of size or more searches from the last bit, a from of -1
+     * returns -1, and anything below -1 throws an IndexOutOfBoundsException
+     */
+    public long previousSetBit(long from) {
+        if (from < -1) {
+            throw new IndexOutOfBoundsException("Index " + from + " is out of bounds.");
+        }
+        if (from == -1 || size == 0) {
+            return -1;
+        }
+        from = Math.min(from, size - 1);
+        int w = index_word(from);
+        long word = data[w] & (~0L >>> (BitsPerElement - 1 - from % BitsPerElement));
+        while (word == 0) {
+            if (--w < 0) {
+                return -1;
+            }
+            word = data[w];
+        }
+        return (long) w * BitsPerElement + (BitsPerElement - 1 - Long.numberOfLeadingZeros(word));
     }
 
     /**
-     * COMP7505 only (COMP3506 may do this for fun)
-     * Returns the number of bits that are set to 1 across the entire bitvector
+     * Returns an iterator over the indices of the set bits, in increasing
+     * order. It reads the words directly, clearing the lowest set bit of a
+     * copy of the current word on each step, so a full pass costs
+     * O(size / 64 + popcount). Changing the vector while iterating is not
+     * supported.
      */
-    public long popcount() {
+    public LongIterator setBits() {
+        return new LongIterator() {
+            private int w = 0;
+            private long word = data.length == 0 ? 0L : data[0];
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0) {
+                    if (w + 1 >= data.length) {
+                        return false;
+                    }
+                    word = data[++w];
+                }
+                return true;
+            }
 
-        return -1;
+            @Override
+            public long next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long ix = (long) w * BitsPerElement + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return ix;
+            }
+        };
     }
 
     /**
-     * COMP7505 only (COMP3506 may do this for fun)
-     * Returns the length of the longest run of bits that are set (1) across
-     * the entire bitvector
+     * Returns the number of bits set to 1 in [0, i), for 0 <= i <= size
+     * The first call after a change builds a small directory (about 3% of
+     * the vector) in O(size / 64); after that each call is O(1): one directory
+     * lookup plus at most 8 word popcounts.
+     * If i is out of bounds, you should throw an IndexOutOfBoundsException
      */
-    public long runcount() {
+    public long rank1(long i) {
+        if (i < 0 || i > size) {
+            throw new IndexOutOfBoundsException("Index " + i + " is out of bounds.");
+        }
+        return rankIndex().rank1(i);
+    }
 
-        return -1;
+    /**
+     * Returns the index of the j-th bit set to 1, counting from j = 0, so
+     * that rank1(select1(j)) == j
+     * Uses the same directory as rank1. Each call is a binary search over
+     * the 2048-bit blocks holding the 8192 ones around j, followed by at most
+     * 8 word popcounts. That is not O(1): it is O(log(b)) for the b blocks
+     * those ones span, which stays small on dense vectors but is
+     * O(log(size)) on sparse ones.
+     * If there are not j + 1 set bits, you should throw an IndexOutOfBoundsException
+     */
+    public long select1(long j) {
+        RankSelectIndex index = rankIndex();
+        if (j < 0 || j >= index.ones()) {
+            throw new IndexOutOfBoundsException("No set bit with rank " + j + ".");
+        }
+        return index.select1(j);
+    }
+
+    private RankSelectIndex rankIndex() {
+        if (rankIndex == null) {
+            rankIndex = new RankSelectIndex(data);
+        }
+        return rankIndex;
+    }
+
+    private void checkRange(long from, long to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException(
+                    "Range [" + from + ", " + to + ") is out of bounds.");
+        }
+    }
+
+    /**
+     * mask of the bits of word i that lie inside [from, to), to > from
+     */
+    private static long rangeMask(int i, long from, long to) {
+        long wordStart = (long) i * BitsPerElement;
+        long mask = ~0L;
+        if (from > wordStart) {
+            mask &= ~0L << (from - wordStart);
+        }
+        if (to < wordStart + BitsPerElement) {
+            mask &= ~0L >>> (wordStart + BitsPerElement - to);
+        }
+        return mask;
     }
 
 }
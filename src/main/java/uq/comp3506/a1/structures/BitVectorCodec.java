@@ -0,0 +1,293 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The stream format behind BitVector.writeTo and BitVector.readFrom.
+ * <pre>
+ *   int   magic "BVS1"
+ *   byte  encoding: RAW, RUNS or SPARSE
+ *   long  size in bits
+ *   RAW:    ceil(size / 64) words
+ *   RUNS:   varint run count, then per run varint (start - end of last run)
+ *           and varint (length - 1)
+ *   SPARSE: varint popcount, then per set bit varint (index - last index - 1)
+ * </pre>
+ * Fixed-width fields are little-endian; varints are unsigned LEB128, 7 bits
+ * a byte. The encoding is picked from the popcount and the number of runs,
+ * whichever is estimated smallest. Everything goes through one 64KB buffer,
+ * so nothing proportional to the vector is allocated on either side beyond
+ * the vector itself. A record carries no length, but the reader never reads
+ * past its end, so records can be written one after another to one stream.
+ */
+final class BitVectorCodec {
+
+    private static final int MAGIC = 0x31535642; // "BVS1" little-endian
+    private static final byte RAW = 0;
+    private static final byte RUNS = 1;
+    private static final byte SPARSE = 2;
+    private static final int HEADER_BYTES = 4 + 1 + 8;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private BitVectorCodec() {
+    }
+
+    /**
+     * bytes in the varint for v
+     */
+    private static int varintLength(long v) {
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(v) + 6) / 7);
+    }
+
+    /**
+     * number of runs of set bits, one per 0 -> 1 step (the boundary trick
+     * from BitVector.runcount)
+     */
+    private static long countRuns(long[] data) {
+        long runs = 0;
+        long carry = 0;
+        for (long x : data) {
+            runs += Long.bitCount(x & ~((x << 1) | carry));
+            carry = x >>> 63;
+        }
+        return runs;
+    }
+
+    static void write(BitVector bv, WritableByteChannel ch) throws IOException {
+        long[] data = bv.words();
+        long size = bv.size();
+        long ones = bv.popcount();
+        long runs = countRuns(data);
+        // estimated payloads, taking every gap and length to be average
+        long raw = (long) data.length * Long.BYTES;
+        long sparse = ones * varintLength(size / Math.max(1, ones));
+        long rle = runs * (varintLength(size / Math.max(1, runs))
+                + varintLength(ones / Math.max(1, runs)));
+        byte encoding = RAW;
+        if (sparse < raw && sparse <= rle) {
+            encoding = SPARSE;
+        } else if (rle < raw) {
+            encoding = RUNS;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).put(encoding).putLong(size);
+        if (encoding == RAW) {
+            int i = 0;
+            while (i < data.length) {
+                int n = Math.min(buf.remaining() / Long.BYTES, data.length - i);
+                buf.asLongBuffer().put(data, i, n);
+                buf.position(buf.position() + n * Long.BYTES);
+                i += n;
+                flush(ch, buf);
+            }
+        } else if (encoding == SPARSE) {
+            putVarint(ch, buf, ones);
+            long last = -1;
+            for (int w = 0; w < data.length; w++) {
+                long x = data[w];
+                while (x != 0) {
+                    long ix = (long) w * 64 + Long.numberOfTrailingZeros(x);
+                    putVarint(ch, buf, ix - last - 1);
+                    last = ix;
+                    x &= x - 1;
+                }
+            }
+        } else {
+            putVarint(ch, buf, runs);
+            long lastEnd = 0;
+            long runStart = 0;
+            long carry = 0;
+            for (int w = 0; w < data.length; w++) {
+                long x = data[w];
+                long boundaries = x ^ ((x << 1) | carry);
+                carry = x >>> 63;
+                while (boundaries != 0) {
+                    int bit = Long.numberOfTrailingZeros(boundaries);
+                    long pos = (long) w * 64 + bit;
+                    if (((x >>> bit) & 1L) != 0) {
+                        runStart = pos;
+                    } else {
+                        putVarint(ch, buf, runStart - lastEnd);
+                        putVarint(ch, buf, pos - runStart - 1);
+                        lastEnd = pos;
+                    }
+                    boundaries &= boundaries - 1;
+                }
+            }
+            if (carry != 0) {
+                long end = (long) data.length * 64;
+                putVarint(ch, buf, runStart - lastEnd);
+                putVarint(ch, buf, end - runStart - 1);
+            }
+        }
+        flush(ch, buf);
+    }
+
+    static BitVector read(ReadableByteChannel ch) throws IOException {
+        Input in = new Input(ch);
+        in.expect(HEADER_BYTES);
+        in.need(HEADER_BYTES);
+        if (in.buf.getInt() != MAGIC) {
+            throw new IOException("Not a serialized BitVector.");
+        }
+        byte encoding = in.buf.get();
+        long size = in.buf.getLong();
+        in.consumed(HEADER_BYTES);
+        if (encoding != RAW && encoding != RUNS && encoding != SPARSE) {
+            throw new IOException("Unknown BitVector encoding " + encoding + ".");
+        }
+        if (size < 0 || size > (long) Integer.MAX_VALUE * BitVector.BitsPerElement) {
+            throw new IOException("Corrupt BitVector size " + size + ".");
+        }
+        BitVector bv = new BitVector(size);
+        long[] data = bv.words();
+        if (encoding == RAW) {
+            in.expect((long) data.length * Long.BYTES);
+            int i = 0;
+            while (i < data.length) {
+                in.need(Long.BYTES);
+                int n = Math.min(in.buf.remaining() / Long.BYTES, data.length - i);
+                in.buf.asLongBuffer().get(data, i, n);
+                in.buf.position(in.buf.position() + n * Long.BYTES);
+                in.consumed((long) n * Long.BYTES);
+                i += n;
+            }
+            if (data.length > 0 && size % 64 != 0) {
+                data[data.length - 1] &= (1L << size) - 1L;
+            }
+        } else if (encoding == SPARSE) {
+            in.expect(1);
+            long ones = in.getVarint();
+            if (ones > size) {
+                throw new IOException("Corrupt BitVector: " + ones + " bits set of " + size + ".");
+            }
+            in.expect(ones);
+            long ix = -1;
+            for (long k = 0; k < ones; k++) {
+                ix += in.getVarint() + 1;
+                if (ix < 0 || ix >= size) {
+                    throw new IOException("Corrupt BitVector: bit " + ix + " past " + size + ".");
+                }
+                data[(int) (ix >>> 6)] |= 1L << ix;
+            }
+        } else {
+            in.expect(1);
+            long runs = in.getVarint();
+            if (runs > (size + 1) / 2) {
+                throw new IOException("Corrupt BitVector: " + runs + " runs in " + size + " bits.");
+            }
+            in.expect(2 * runs);
+            long end = 0;
+            for (long k = 0; k < runs; k++) {
+                long start = end + in.getVarint();
+                end = start + in.getVarint() + 1;
+                if (start < 0 || end > size || end <= start) {
+                    throw new IOException("Corrupt BitVector: run past " + size + ".");
+                }
+                bv.set(start, end);
+            }
+        }
+        bv.wordsChanged();
+        return bv;
+    }
+
+    /**
+     * write out everything in buf and leave it empty for putting
+     */
+    private static void flush(WritableByteChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+        buf.clear();
+    }
+
+    private static void putVarint(WritableByteChannel ch, ByteBuffer buf, long v)
+            throws IOException {
+        if (buf.remaining() < 10) {
+            flush(ch, buf);
+        }
+        while ((v & ~0x7FL) != 0) {
+            buf.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buf.put((byte) v);
+    }
+
+    /**
+     * The reading end of one record. The stream may carry more after it (say
+     * several vectors written back to back), so this never reads past the
+     * record: `left` is a lower bound on the record's bytes from the buffer
+     * position on, raised by expect() as the format says more must follow,
+     * and the buffer is only ever filled that far.
+     */
+    private static final class Input {
+        private final ReadableByteChannel ch;
+        private final ByteBuffer buf;
+        private long left;
+
+        Input(ReadableByteChannel ch) {
+            this.ch = ch;
+            this.buf = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buf.flip(); // starts empty, in read mode
+        }
+
+        /**
+         * the record holds at least n more bytes than counted so far
+         */
+        void expect(long n) {
+            left += n;
+        }
+
+        /**
+         * n bytes have been taken from buf
+         */
+        void consumed(long n) {
+            left -= n;
+        }
+
+        /**
+         * make sure at least n bytes (n <= left) are readable in buf
+         */
+        void need(int n) throws IOException {
+            if (buf.remaining() >= n) {
+                return;
+            }
+            buf.compact();
+            buf.limit((int) Math.min(buf.capacity(), left));
+            while (buf.position() < n) {
+                if (ch.read(buf) < 0) {
+                    throw new EOFException("BitVector stream ended early.");
+                }
+            }
+            buf.flip();
+        }
+
+        /**
+         * the caller must have expect()ed its first byte; each continuation
+         * byte promises one more
+         */
+        long getVarint() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                need(1);
+                byte b = buf.get();
+                consumed(1);
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return v;
+                }
+                expect(1);
+            }
+            throw new IOException("Corrupt BitVector: varint too long.");
+        }
+    }
+}
@@ -0,0 +1,216 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+import java.util.function.LongPredicate;
+
+/**
+ * A cache-line-blocked Bloom filter over long keys, stored in the words of a
+ * BitVector.
+ * <p>
+ * A plain Bloom filter hashes a key k times into the whole bit array, so a
+ * lookup touches k random cache lines. Here the bits are cut into 512-bit
+ * blocks (8 words, one 64-byte cache line). One hash picks the key's block
+ * and all k probes land inside it, so add and mightContain cost a single
+ * cache miss. The price is a slightly higher false positive rate than an
+ * unblocked filter of the same size.
+ * <p>
+ * Inside a block the probes are (a + i * step) mod 512 with an odd step,
+ * so the k probes of a key are always k different bits.
+ */
+public class BloomFilter {
+
+    static final int BLOCK_BITS = 512;
+    static final int BLOCK_WORDS = BLOCK_BITS / BitVector.BitsPerElement;
+
+    /**
+     * most blocks that fit in a BitVector
+     */
+    static final long MAX_BLOCKS = Integer.MAX_VALUE / BLOCK_WORDS;
+
+    private final BitVector bits;
+    private final long[] words;
+    private final long numBlocks;
+    private final int numHashes;
+
+    /**
+     * Constructs a filter sized for expectedKeys keys at the given false
+     * positive rate, using the usual m = -n ln(p) / ln(2)^2 bits and
+     * k = (m / n) ln(2) hashes
+     */
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        this(optimalBits(expectedKeys, falsePositiveRate),
+                optimalHashes(expectedKeys, optimalBits(expectedKeys, falsePositiveRate)));
+    }
+
+    /**
+     * Constructs a filter of at least numBits bits (rounded up to whole
+     * blocks) that sets numHashes bits per key
+     */
+    public BloomFilter(long numBits, int numHashes) {
+        this.numBlocks = blocksFor(numBits, BLOCK_BITS);
+        this.numHashes = checkHashes(numHashes);
+        this.bits = new BitVector(numBlocks * BLOCK_BITS);
+        this.words = bits.words();
+    }
+
+    /**
+     * Returns the number of bits in the filter
+     */
+    public long numBits() {
+        return numBlocks * BLOCK_BITS;
+    }
+
+    /**
+     * Returns the number of bits set per key
+     */
+    public int numHashes() {
+        return numHashes;
+    }
+
+    /**
+     * Add key to the filter
+     */
+    public void add(long key) {
+        long h = mix(key);
+        int base = blockBase(h, numBlocks);
+        long seed = probeSeed(h);
+        for (int i = 0; i < numHashes; i++) {
+            int p = probe(seed, i, BLOCK_BITS);
+            words[base + (p >>> 6)] |= 1L << p;
+        }
+    }
+
+    /**
+     * Returns false if key was definitely never added, and true if it
+     * probably was
+     */
+    public boolean mightContain(long key) {
+        long h = mix(key);
+        int base = blockBase(h, numBlocks);
+        long seed = probeSeed(h);
+        for (int i = 0; i < numHashes; i++) {
+            int p = probe(seed, i, BLOCK_BITS);
+            if ((words[base + (p >>> 6)] & (1L << p)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add every key in keys
+     */
+    public void addAll(long[] keys) {
+        for (long key : keys) {
+            add(key);
+        }
+    }
+
+    /**
+     * Set bit i of out to mightContain(keys[i]) for every i; out must have
+     * exactly keys.length bits, otherwise this throws an
+     * IllegalArgumentException. The results are packed 64 at a time and
+     * stored a word at a time.
+     */
+    public void mightContainAll(long[] keys, BitVector out) {
+        testAll(keys, out, this::mightContain);
+    }
+
+    // ---------- shared with CountingBloomFilter ----------
+
+    /**
+     * murmur3's 64-bit finalizer: every input bit affects every output bit
+     */
+    static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        x *= 0xC4CEB9FE1A85EC53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    /**
+     * first word of the block for hash h (h = mix(key)), picked from its high
+     * bits by multiply-shift rather than a division
+     */
+    static int blockBase(long h, long numBlocks) {
+        return (int) Math.unsignedMultiplyHigh(h, numBlocks) * BLOCK_WORDS;
+    }
+
+    /**
+     * the second hash of a key, from h = mix(key), that probe() turns into
+     * its probes inside the block
+     */
+    static long probeSeed(long h) {
+        return mix(h + 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * probe i of a key, a slot in [0, slots) of its block: (a + i * step) mod
+     * slots with a and the odd step from the low and high halves of seed.
+     * slots is a power of two, so the first slots probes are all different.
+     */
+    static int probe(long seed, int i, int slots) {
+        int step = (int) (seed >>> 32) | 1;
+        return ((int) seed + i * step) & (slots - 1);
+    }
+
+    static long optimalBits(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0) {
+            throw new IllegalArgumentException("expectedKeys must be > 0");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        double ln2 = Math.log(2);
+        return (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2));
+    }
+
+    static int optimalHashes(long expectedKeys, long numBits) {
+        long k = Math.round((double) numBits / expectedKeys * Math.log(2));
+        return (int) Math.max(1, Math.min(16, k));
+    }
+
+    static long blocksFor(long slots, int slotsPerBlock) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("the filter needs at least 1 bit");
+        }
+        long blocks = (slots + slotsPerBlock - 1) / slotsPerBlock;
+        if (blocks > MAX_BLOCKS) {
+            throw new IllegalArgumentException("too big for one BitVector: " + blocks + " blocks");
+        }
+        return blocks;
+    }
+
+    static int checkHashes(int numHashes) {
+        if (numHashes < 1 || numHashes > 64) {
+            throw new IllegalArgumentException("numHashes must be in [1, 64]");
+        }
+        return numHashes;
+    }
+
+    /**
+     * mightContainAll for either filter: bit i of out is test(keys[i]),
+     * packed 64 at a time and stored a word at a time
+     */
+    static void testAll(long[] keys, BitVector out, LongPredicate test) {
+        if (out.size() != keys.length) {
+            throw new IllegalArgumentException(
+                    "out has " + out.size() + " bits for " + keys.length + " keys.");
+        }
+        long[] dst = out.words();
+        for (int w = 0; w < dst.length; w++) {
+            long result = 0;
+            int end = Math.min(keys.length, (w + 1) * BitVector.BitsPerElement);
+            for (int i = w * BitVector.BitsPerElement; i < end; i++) {
+                if (test.test(keys[i])) {
+                    result |= 1L << i;
+                }
+            }
+            dst[w] = result;
+        }
+        out.wordsChanged();
+    }
+}
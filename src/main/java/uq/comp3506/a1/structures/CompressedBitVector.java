@@ -0,0 +1,745 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+/**
+ * A compressed bitvector in the style of Roaring bitmaps, for sets of bits
+ * that are sparse or come in long runs.
+ * <p>
+ * The index space is cut into containers of 2^16 bits. Bit ix lives in the
+ * container with key ix >>> 16, at position ix & 0xFFFF. Only containers
+ * holding at least one set bit exist; their keys are kept sorted and found
+ * by binary search. Each container uses whichever of three forms is smallest:
+ * <ul>
+ *   <li>array: the sorted positions as chars, 2 bytes per set bit, used up
+ *       to 4096 bits</li>
+ *   <li>bitmap: 1024 words, a flat 8KB</li>
+ *   <li>run: (start, length - 1) pairs, 4 bytes per run of set bits</li>
+ * </ul>
+ * set and unset switch between array and bitmap as the count crosses 4096.
+ * Runs come from fromBitVector and runOptimize, which pick the smallest form
+ * for every container.
+ */
+public class CompressedBitVector {
+
+    private static final int CONTAINER_BITS = 1 << 16;
+    private static final int BITMAP_WORDS = CONTAINER_BITS / BitVector.BitsPerElement;
+    private static final int BITMAP_BYTES = BITMAP_WORDS * Long.BYTES;
+    private static final int ARRAY_MAX = 4096;
+
+    /**
+     * The number of "active" bits that can be stored in this bitvector
+     */
+    private final long size;
+
+    /**
+     * keys[0..count) in increasing order, containers[i] holds key keys[i]
+     */
+    private long[] keys;
+    private Container[] containers;
+    private int count = 0;
+
+    /**
+     * Constructs an empty bitvector of `size` bits, all 0
+     */
+    public CompressedBitVector(long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size < 0");
+        }
+        this.size = size;
+        this.keys = new long[4];
+        this.containers = new Container[4];
+    }
+
+    /**
+     * Returns the total number of bits that can be used
+     */
+    public long size() {
+        return size;
+    }
+
+    private void checkBounds(long idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index " + idx + " is out of bounds.");
+        }
+    }
+
+    /**
+     * index of key in keys, or -(insertion point) - 1 if it is not there
+     */
+    private int find(long key) {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else if (keys[mid] > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    /**
+     * put c at index i, moving the later containers up
+     */
+    private void insertAt(int i, long key, Container c) {
+        if (count == keys.length) {
+            // doubled as in DynamicArray, but moved with System.arraycopy
+            long[] newKeys = new long[2 * count];
+            Container[] newContainers = new Container[2 * count];
+            System.arraycopy(keys, 0, newKeys, 0, count);
+            System.arraycopy(containers, 0, newContainers, 0, count);
+            keys = newKeys;
+            containers = newContainers;
+        }
+        System.arraycopy(keys, i, keys, i + 1, count - i);
+        System.arraycopy(containers, i, containers, i + 1, count - i);
+        keys[i] = key;
+        containers[i] = c;
+        count++;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, count - i - 1);
+        count--;
+        containers[count] = null;
+    }
+
+    /**
+     * Returns the value of the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public boolean get(long ix) {
+        checkBounds(ix);
+        int i = find(ix >>> 16);
+        return i >= 0 && containers[i].contains((char) ix);
+    }
+
+    /**
+     * Set the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void set(long ix) {
+        checkBounds(ix);
+        int i = find(ix >>> 16);
+        if (i < 0) {
+            i = -i - 1;
+            insertAt(i, ix >>> 16, new ArrayContainer());
+        }
+        containers[i] = containers[i].add((char) ix);
+    }
+
+    /**
+     * Unset the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void unset(long ix) {
+        checkBounds(ix);
+        int i = find(ix >>> 16);
+        if (i < 0) {
+            return;
+        }
+        Container c = containers[i].remove((char) ix);
+        if (c.cardinality() == 0) {
+            removeAt(i);
+        } else {
+            containers[i] = c;
+        }
+    }
+
+    /**
+     * Returns the number of bits that are set to 1
+     */
+    public long popcount() {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the length of the longest run of set bits. Runs may carry on
+     * across any number of neighbouring containers.
+     */
+    public long runcount() {
+        long best = 0;
+        long carry = 0;     // length of the run reaching the end of the previous container
+        long prevKey = -2;
+        for (int i = 0; i < count; i++) {
+            Container c = containers[i];
+            long start = keys[i] == prevKey + 1 ? carry : 0;
+            int prefix = c.prefixRun();
+            if (prefix == CONTAINER_BITS) {
+                carry = start + CONTAINER_BITS;
+            } else {
+                best = Math.max(best, Math.max(start + prefix, c.longestRun()));
+                carry = c.suffixRun();
+            }
+            best = Math.max(best, carry);
+            prevKey = keys[i];
+        }
+        return best;
+    }
+
+    /**
+     * Convert every container to its smallest form, which may be a run
+     * container. Worth calling after many set/unset calls on clustered bits.
+     */
+    public void runOptimize() {
+        for (int i = 0; i < count; i++) {
+            containers[i] = containers[i].optimize();
+        }
+    }
+
+    /**
+     * Returns roughly how many bytes the containers take, not counting
+     * object headers
+     */
+    public long sizeInBytes() {
+        long bytes = (long) count * (Long.BYTES + 8);
+        for (int i = 0; i < count; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns a compressed copy of bv, each container in its smallest form
+     */
+    public static CompressedBitVector fromBitVector(BitVector bv) {
+        CompressedBitVector out = new CompressedBitVector(bv.size());
+        long[] words = bv.words();
+        for (int off = 0; off < words.length; off += BITMAP_WORDS) {
+            int len = Math.min(BITMAP_WORDS, words.length - off);
+            Container c = Container.fromWords(words, off, len);
+            if (c != null) {
+                out.insertAt(out.count, off / BITMAP_WORDS, c);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns a dense copy of this bitvector.
+     * If size is too big for a BitVector, this throws an IllegalStateException
+     */
+    public BitVector toBitVector() {
+        if (size > (long) Integer.MAX_VALUE * BitVector.BitsPerElement) {
+            throw new IllegalStateException(size + " bits is too big for a BitVector.");
+        }
+        BitVector out = new BitVector(size);
+        long[] words = out.words();
+        for (int i = 0; i < count; i++) {
+            containers[i].writeTo(words, (int) (keys[i] * BITMAP_WORDS));
+        }
+        return out;
+    }
+
+    /**
+     * One container of 2^16 bits. add and remove return the container to use
+     * from then on, which is a new one when the form changes.
+     */
+    private abstract static class Container {
+
+        abstract boolean contains(char x);
+
+        abstract Container add(char x);
+
+        abstract Container remove(char x);
+
+        abstract int cardinality();
+
+        /**
+         * length of the run of set bits starting at position 0
+         */
+        abstract int prefixRun();
+
+        /**
+         * length of the run of set bits ending at position 65535
+         */
+        abstract int suffixRun();
+
+        abstract int longestRun();
+
+        abstract int sizeInBytes();
+
+        /**
+         * OR the bits into words[offset..), stopping at the end of words
+         */
+        abstract void writeTo(long[] words, int offset);
+
+        Container optimize() {
+            long[] words = new long[BITMAP_WORDS];
+            writeTo(words, 0);
+            Container c = fromWords(words, 0, BITMAP_WORDS);
+            return c == null ? new ArrayContainer() : c;
+        }
+
+        /**
+         * the smallest container for the len words at words[off..], or null
+         * if they are all 0
+         */
+        static Container fromWords(long[] words, int off, int len) {
+            int card = 0;
+            int runs = 0;
+            long carry = 0;
+            for (int j = 0; j < len; j++) {
+                long x = words[off + j];
+                card += Long.bitCount(x);
+                // a run starts at every 0 -> 1 step
+                runs += Long.bitCount(x & ~((x << 1) | carry));
+                carry = x >>> 63;
+            }
+            if (card == 0) {
+                return null;
+            }
+            if (runs * 4 < Math.min(card * 2, BITMAP_BYTES)) {
+                return new RunContainer(words, off, len, runs);
+            }
+            if (card <= ARRAY_MAX) {
+                return new ArrayContainer(words, off, len, card);
+            }
+            return new BitmapContainer(words, off, len, card);
+        }
+    }
+
+    /**
+     * sorted positions, at most ARRAY_MAX of them
+     */
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int card;
+
+        ArrayContainer() {
+            this.values = new char[4];
+        }
+
+        ArrayContainer(long[] words, int off, int len, int card) {
+            this.values = new char[card];
+            for (int j = 0; j < len; j++) {
+                long x = words[off + j];
+                while (x != 0) {
+                    values[this.card++] = (char) (j * 64 + Long.numberOfTrailingZeros(x));
+                    x &= x - 1;
+                }
+            }
+        }
+
+        /**
+         * index of x, or -(insertion point) - 1
+         */
+        private int search(char x) {
+            int lo = 0;
+            int hi = card - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < x) {
+                    lo = mid + 1;
+                } else if (values[mid] > x) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        @Override
+        boolean contains(char x) {
+            return search(x) >= 0;
+        }
+
+        @Override
+        Container add(char x) {
+            int i = search(x);
+            if (i >= 0) {
+                return this;
+            }
+            if (card == ARRAY_MAX) {
+                return toBitmap().add(x);
+            }
+            i = -i - 1;
+            if (card == values.length) {
+                char[] bigger = new char[Math.min(ARRAY_MAX, 2 * card)];
+                System.arraycopy(values, 0, bigger, 0, card);
+                values = bigger;
+            }
+            System.arraycopy(values, i, values, i + 1, card - i);
+            values[i] = x;
+            card++;
+            return this;
+        }
+
+        @Override
+        Container remove(char x) {
+            int i = search(x);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, card - i - 1);
+                card--;
+            }
+            return this;
+        }
+
+        private Container toBitmap() {
+            long[] words = new long[BITMAP_WORDS];
+            writeTo(words, 0);
+            return new BitmapContainer(words, 0, BITMAP_WORDS, card);
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int prefixRun() {
+            int n = 0;
+            while (n < card && values[n] == n) {
+                n++;
+            }
+            return n;
+        }
+
+        @Override
+        int suffixRun() {
+            int n = 0;
+            while (n < card && values[card - 1 - n] == CONTAINER_BITS - 1 - n) {
+                n++;
+            }
+            return n;
+        }
+
+        @Override
+        int longestRun() {
+            int best = 0;
+            int run = 0;
+            for (int i = 0; i < card; i++) {
+                run = i > 0 && values[i] == values[i - 1] + 1 ? run + 1 : 1;
+                best = Math.max(best, run);
+            }
+            return best;
+        }
+
+        @Override
+        int sizeInBytes() {
+            return values.length * Character.BYTES;
+        }
+
+        @Override
+        void writeTo(long[] words, int offset) {
+            for (int i = 0; i < card; i++) {
+                words[offset + (values[i] >>> 6)] |= 1L << values[i];
+            }
+        }
+    }
+
+    /**
+     * a plain 2^16-bit bitmap
+     */
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[BITMAP_WORDS];
+        private int card;
+
+        BitmapContainer(long[] src, int off, int len, int card) {
+            System.arraycopy(src, off, words, 0, len);
+            this.card = card;
+        }
+
+        @Override
+        boolean contains(char x) {
+            return (words[x >>> 6] & (1L << x)) != 0;
+        }
+
+        @Override
+        Container add(char x) {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) == 0) {
+                words[x >>> 6] |= bit;
+                card++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char x) {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) != 0) {
+                words[x >>> 6] &= ~bit;
+                card--;
+                if (card <= ARRAY_MAX) {
+                    return new ArrayContainer(words, 0, BITMAP_WORDS, card);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int prefixRun() {
+            int w = 0;
+            while (w < BITMAP_WORDS && words[w] == ~0L) {
+                w++;
+            }
+            return w == BITMAP_WORDS ? CONTAINER_BITS
+                    : w * 64 + Long.numberOfTrailingZeros(~words[w]);
+        }
+
+        @Override
+        int suffixRun() {
+            int w = BITMAP_WORDS - 1;
+            while (w >= 0 && words[w] == ~0L) {
+                w--;
+            }
+            return w < 0 ? CONTAINER_BITS
+                    : (BITMAP_WORDS - 1 - w) * 64 + Long.numberOfLeadingZeros(~words[w]);
+        }
+
+        @Override
+        int longestRun() {
+            // the same boundary scan as BitVector.runcount
+            int best = 0;
+            int runStart = 0;
+            long carry = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long x = words[w];
+                long boundaries = x ^ ((x << 1) | carry);
+                carry = x >>> 63;
+                while (boundaries != 0) {
+                    int bit = Long.numberOfTrailingZeros(boundaries);
+                    int pos = w * 64 + bit;
+                    if (((x >>> bit) & 1L) != 0) {
+                        runStart = pos;
+                    } else {
+                        best = Math.max(best, pos - runStart);
+                    }
+                    boundaries &= boundaries - 1;
+                }
+            }
+            if (carry != 0) {
+                best = Math.max(best, CONTAINER_BITS - runStart);
+            }
+            return best;
+        }
+
+        @Override
+        int sizeInBytes() {
+            return BITMAP_BYTES;
+        }
+
+        @Override
+        void writeTo(long[] dst, int offset) {
+            int len = Math.min(BITMAP_WORDS, dst.length - offset);
+            for (int w = 0; w < len; w++) {
+                dst[offset + w] |= words[w];
+            }
+        }
+    }
+
+    /**
+     * sorted, non-touching runs stored as (start, length - 1) char pairs
+     */
+    private static final class RunContainer extends Container {
+        /**
+         * past this many runs a bitmap is smaller
+         */
+        private static final int MAX_RUNS = BITMAP_BYTES / 4;
+
+        private char[] runs;
+        private int numRuns;
+        private int card;
+
+        RunContainer(long[] words, int off, int len, int runCount) {
+            this.runs = new char[2 * runCount];
+            int runStart = 0;
+            long carry = 0;
+            for (int j = 0; j < len; j++) {
+                long x = words[off + j];
+                long boundaries = x ^ ((x << 1) | carry);
+                carry = x >>> 63;
+                while (boundaries != 0) {
+                    int bit = Long.numberOfTrailingZeros(boundaries);
+                    int pos = j * 64 + bit;
+                    if (((x >>> bit) & 1L) != 0) {
+                        runStart = pos;
+                    } else {
+                        appendRun(runStart, pos - 1);
+                    }
+                    boundaries &= boundaries - 1;
+                }
+            }
+            if (carry != 0) {
+                appendRun(runStart, len * 64 - 1);
+            }
+        }
+
+        private void appendRun(int start, int end) {
+            runs[2 * numRuns] = (char) start;
+            runs[2 * numRuns + 1] = (char) (end - start);
+            numRuns++;
+            card += end - start + 1;
+        }
+
+        private int start(int i) {
+            return runs[2 * i];
+        }
+
+        private int end(int i) {
+            return runs[2 * i] + runs[2 * i + 1];
+        }
+
+        /**
+         * index of the last run starting at or before x, or -1
+         */
+        private int floor(int x) {
+            int lo = 0;
+            int hi = numRuns - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start(mid) <= x) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return hi;
+        }
+
+        private void insertRun(int i, int start, int end) {
+            if (2 * numRuns == runs.length) {
+                char[] bigger = new char[Math.max(4, 2 * runs.length)];
+                System.arraycopy(runs, 0, bigger, 0, 2 * numRuns);
+                runs = bigger;
+            }
+            System.arraycopy(runs, 2 * i, runs, 2 * i + 2, 2 * (numRuns - i));
+            runs[2 * i] = (char) start;
+            runs[2 * i + 1] = (char) (end - start);
+            numRuns++;
+        }
+
+        private void deleteRun(int i) {
+            System.arraycopy(runs, 2 * i + 2, runs, 2 * i, 2 * (numRuns - i - 1));
+            numRuns--;
+        }
+
+        private void setRun(int i, int start, int end) {
+            runs[2 * i] = (char) start;
+            runs[2 * i + 1] = (char) (end - start);
+        }
+
+        @Override
+        boolean contains(char x) {
+            int i = floor(x);
+            return i >= 0 && x <= end(i);
+        }
+
+        @Override
+        Container add(char x) {
+            int i = floor(x);
+            if (i >= 0 && x <= end(i)) {
+                return this;
+            }
+            card++;
+            boolean joinsPrev = i >= 0 && end(i) + 1 == x;
+            boolean joinsNext = i + 1 < numRuns && start(i + 1) == x + 1;
+            if (joinsPrev && joinsNext) {
+                setRun(i, start(i), end(i + 1));
+                deleteRun(i + 1);
+            } else if (joinsPrev) {
+                setRun(i, start(i), x);
+            } else if (joinsNext) {
+                setRun(i + 1, x, end(i + 1));
+            } else {
+                insertRun(i + 1, x, x);
+            }
+            return numRuns > MAX_RUNS ? optimize() : this;
+        }
+
+        @Override
+        Container remove(char x) {
+            int i = floor(x);
+            if (i < 0 || x > end(i)) {
+                return this;
+            }
+            card--;
+            int start = start(i);
+            int end = end(i);
+            if (start == end) {
+                deleteRun(i);
+            } else if (x == start) {
+                setRun(i, start + 1, end);
+            } else if (x == end) {
+                setRun(i, start, end - 1);
+            } else {
+                setRun(i, start, x - 1);
+                insertRun(i + 1, x + 1, end);
+            }
+            return numRuns > MAX_RUNS ? optimize() : this;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        int prefixRun() {
+            return numRuns > 0 && start(0) == 0 ? end(0) + 1 : 0;
+        }
+
+        @Override
+        int suffixRun() {
+            int last = numRuns - 1;
+            return numRuns > 0 && end(last) == CONTAINER_BITS - 1 ? end(last) - start(last) + 1 : 0;
+        }
+
+        @Override
+        int longestRun() {
+            int best = 0;
+            for (int i = 0; i < numRuns; i++) {
+                best = Math.max(best, end(i) - start(i) + 1);
+            }
+            return best;
+        }
+
+        @Override
+        int sizeInBytes() {
+            return runs.length * Character.BYTES;
+        }
+
+        /**
+         * mask of the bits of a word below position to (1 to 64 in that word)
+         */
+        private static long belowMask(int to) {
+            return (to & 63) == 0 ? ~0L : (1L << to) - 1L;
+        }
+
+        @Override
+        void writeTo(long[] words, int offset) {
+            for (int i = 0; i < numRuns; i++) {
+                int from = start(i);
+                int to = end(i) + 1;
+                int first = from >>> 6;
+                int last = (to - 1) >>> 6;
+                if (first == last) {
+                    words[offset + first] |= (~0L << from) & belowMask(to);
+                    continue;
+                }
+                words[offset + first] |= ~0L << from;
+                for (int w = first + 1; w < last; w++) {
+                    words[offset + w] = ~0L;
+                }
+                words[offset + last] |= belowMask(to);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A fixed-size bitvector that many threads can set and unset at once without
+ * a lock. BitVector.set is a plain read-modify-write of a word, so two
+ * threads touching bits in the same word can lose one of the updates; here
+ * every change is a single atomic getAndBitwiseOr/getAndBitwiseAnd on the
+ * word (a LOCK OR / LOCK AND on x86), which never retries and never loses a
+ * bit. Reads are volatile, so a bit seen as set stays visible.
+ * Bit i is bit i % 64 of word i / 64, as in BitVector.
+ */
+public class ConcurrentBitVector {
+
+    private static final int BitsPerElement = BitVector.BitsPerElement;
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The number of "active" bits that can be stored in this bitvector
+     */
+    private final long size;
+
+    private final long[] data;
+
+    /**
+     * Constructs a bitvector of `size` bits, all 0
+     */
+    public ConcurrentBitVector(long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size < 0");
+        }
+        this.size = size;
+        this.data = new long[(int) Math.ceilDiv(size, BitsPerElement)];
+    }
+
+    /**
+     * Returns the total number of bits that can be used
+     */
+    public long size() {
+        return size;
+    }
+
+    private void checkBounds(long idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index " + idx + " is out of bounds.");
+        }
+    }
+
+    /**
+     * Returns the value of the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public boolean get(long ix) {
+        checkBounds(ix);
+        long word = (long) WORDS.getVolatile(data, (int) (ix >>> 6));
+        return (word & (1L << ix)) != 0;
+    }
+
+    /**
+     * Atomically set the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void set(long ix) {
+        testAndSet(ix);
+    }
+
+    /**
+     * Atomically unset the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void unset(long ix) {
+        testAndUnset(ix);
+    }
+
+    /**
+     * Atomically set the bit at index ix and return its previous value, so
+     * out of many threads racing on one bit exactly one sees false
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public boolean testAndSet(long ix) {
+        checkBounds(ix);
+        long mask = 1L << ix;
+        long old = (long) WORDS.getAndBitwiseOr(data, (int) (ix >>> 6), mask);
+        return (old & mask) != 0;
+    }
+
+    /**
+     * Atomically unset the bit at index ix and return its previous value
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public boolean testAndUnset(long ix) {
+        checkBounds(ix);
+        long mask = 1L << ix;
+        long old = (long) WORDS.getAndBitwiseAnd(data, (int) (ix >>> 6), ~mask);
+        return (old & mask) != 0;
+    }
+
+    /**
+     * Returns the number of bits set to 1.
+     * Each word is read atomically, but writers are not stopped, so while
+     * other threads are changing bits the count may mix words from before
+     * and after their changes. Once they are done it is exact, and if
+     * threads only ever set bits it never goes down between calls.
+     */
+    public long popcount() {
+        long count = 0;
+        for (int i = 0; i < data.length; i++) {
+            count += Long.bitCount((long) WORDS.getVolatile(data, i));
+        }
+        return count;
+    }
+
+    /**
+     * Returns a plain BitVector holding the current bits, with the same
+     * caveat as popcount about writers that are still running
+     */
+    public BitVector toBitVector() {
+        BitVector copy = new BitVector(size);
+        // same layout, and only bits below size are ever set, so the tail
+        // bits are already 0
+        long[] words = copy.words();
+        for (int i = 0; i < data.length; i++) {
+            words[i] = (long) WORDS.getVolatile(data, i);
+        }
+        copy.wordsChanged();
+        return copy;
+    }
+}
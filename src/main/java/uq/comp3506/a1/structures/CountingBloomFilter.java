@@ -0,0 +1,130 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+/**
+ * A blocked Bloom filter that supports remove, with a 4-bit counter in
+ * place of each bit. It is blocked the same way as BloomFilter: a 512-bit
+ * block (one cache line) holds 128 counters, and all k counters of a key are
+ * in one block. Counters are packed 16 to a word of a BitVector.
+ * <p>
+ * A counter that reaches 15 sticks there, because it can no longer tell how
+ * many keys share it. Removing keys never clears a stuck counter, so the
+ * filter can only err towards false positives, never false negatives.
+ */
+public class CountingBloomFilter {
+
+    private static final int COUNTERS = BloomFilter.BLOCK_BITS / 4;
+    private static final long MAX_COUNT = 15;
+
+    private final BitVector counters;
+    private final long[] words;
+    private final long numBlocks;
+    private final int numHashes;
+
+    /**
+     * Constructs a filter sized for expectedKeys keys at the given false
+     * positive rate, with one counter where BloomFilter would use one bit
+     */
+    public CountingBloomFilter(long expectedKeys, double falsePositiveRate) {
+        this(BloomFilter.optimalBits(expectedKeys, falsePositiveRate),
+                BloomFilter.optimalHashes(expectedKeys,
+                        BloomFilter.optimalBits(expectedKeys, falsePositiveRate)));
+    }
+
+    /**
+     * Constructs a filter of at least numCounters counters (rounded up to
+     * whole blocks) that uses numHashes counters per key
+     */
+    public CountingBloomFilter(long numCounters, int numHashes) {
+        this.numBlocks = BloomFilter.blocksFor(numCounters, COUNTERS);
+        this.numHashes = BloomFilter.checkHashes(numHashes);
+        this.counters = new BitVector(numBlocks * BloomFilter.BLOCK_BITS);
+        this.words = counters.words();
+    }
+
+    /**
+     * Returns the number of counters in the filter
+     */
+    public long numCounters() {
+        return numBlocks * COUNTERS;
+    }
+
+    /**
+     * Returns the number of counters used per key
+     */
+    public int numHashes() {
+        return numHashes;
+    }
+
+    /**
+     * apply delta (+1 or -1) to every counter of key, leaving stuck
+     * counters alone; with check set, only tests that all are non-zero
+     */
+    private boolean update(long key, int delta, boolean check) {
+        long h = BloomFilter.mix(key);
+        int base = BloomFilter.blockBase(h, numBlocks);
+        long seed = BloomFilter.probeSeed(h);
+        for (int i = 0; i < numHashes; i++) {
+            int c = BloomFilter.probe(seed, i, COUNTERS);
+            int w = base + (c >>> 4);
+            int shift = (c & 15) * 4;
+            long n = (words[w] >>> shift) & MAX_COUNT;
+            if (check) {
+                if (n == 0) {
+                    return false;
+                }
+            } else if (n != MAX_COUNT) {
+                words[w] += (long) delta << shift;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add key to the filter
+     */
+    public void add(long key) {
+        update(key, 1, false);
+    }
+
+    /**
+     * Remove one earlier add of key. Returns false, changing nothing, if key
+     * is definitely not in the filter. Removing a key that was never added
+     * but happens to test positive corrupts the filter, as with any
+     * counting Bloom filter.
+     */
+    public boolean remove(long key) {
+        if (!update(key, 0, true)) {
+            return false;
+        }
+        update(key, -1, false);
+        return true;
+    }
+
+    /**
+     * Returns false if key is definitely not in the filter, and true if it
+     * probably is
+     */
+    public boolean mightContain(long key) {
+        return update(key, 0, true);
+    }
+
+    /**
+     * Add every key in keys
+     */
+    public void addAll(long[] keys) {
+        for (long key : keys) {
+            add(key);
+        }
+    }
+
+    /**
+     * Set bit i of out to mightContain(keys[i]) for every i; out must have
+     * exactly keys.length bits, otherwise this throws an
+     * IllegalArgumentException
+     */
+    public void mightContainAll(long[] keys, BitVector out) {
+        BloomFilter.testAll(keys, out, this::mightContain);
+    }
+}
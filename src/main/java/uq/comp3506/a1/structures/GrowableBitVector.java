@@ -0,0 +1,186 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+/**
+ * A bitvector that grows at the end, for append-only bitmaps.
+ * Appends are amortized O(1): when the words run out their number is
+ * doubled, as in DynamicArray.double_capacity, but the old words are moved
+ * with one System.arraycopy instead of bit by bit.
+ * Every bit at or past size() is kept 0, so appending only needs to OR bits
+ * in, and truncate only needs to clear what it cuts off.
+ */
+public class GrowableBitVector {
+
+    private static final int BitsPerElement = BitVector.BitsPerElement;
+
+    /**
+     * The number of bits appended so far
+     */
+    private long size = 0;
+
+    private long[] data;
+
+    /**
+     * Constructs an empty bitvector with room for 64 bits
+     */
+    public GrowableBitVector() {
+        this(BitsPerElement);
+    }
+
+    /**
+     * Constructs an empty bitvector with room for initialCapacity bits
+     */
+    public GrowableBitVector(long initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity < 0");
+        }
+        data = new long[wordsFor(Math.max(BitsPerElement, initialCapacity))];
+    }
+
+    private static int wordsFor(long bits) {
+        long words = Math.ceilDiv(bits, BitsPerElement);
+        if (words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many bits: " + bits);
+        }
+        return (int) words;
+    }
+
+    /**
+     * Returns the number of bits appended (and not truncated)
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bits that fit before the next growth
+     */
+    public long capacity() {
+        return (long) data.length * BitsPerElement;
+    }
+
+    /**
+     * Make room for at least minCapacity bits, doubling the words until they
+     * fit
+     */
+    public void ensureCapacity(long minCapacity) {
+        int needed = wordsFor(minCapacity);
+        if (needed <= data.length) {
+            return;
+        }
+        long newWords = data.length;
+        while (newWords < needed) {
+            newWords *= 2;
+        }
+        long[] newData = new long[(int) Math.min(newWords, Integer.MAX_VALUE - 8)];
+        System.arraycopy(data, 0, newData, 0, wordsFor(size));
+        data = newData;
+    }
+
+    /**
+     * Add one bit at index size()
+     */
+    public void append(boolean bit) {
+        ensureCapacity(size + 1);
+        if (bit) {
+            data[(int) (size >>> 6)] |= 1L << size;
+        }
+        size++;
+    }
+
+    /**
+     * Add the low `bits` bits of word (0 to 64 of them), so bit i of word
+     * ends up at index size() + i. This is at most two word writes.
+     */
+    public void appendWord(long word, int bits) {
+        if (bits < 0 || bits > BitsPerElement) {
+            throw new IllegalArgumentException("bits must be in [0, 64]");
+        }
+        if (bits == 0) {
+            return;
+        }
+        ensureCapacity(size + bits);
+        if (bits < BitsPerElement) {
+            word &= (1L << bits) - 1L;
+        }
+        int w = (int) (size >>> 6);
+        int off = (int) (size & 63);
+        data[w] |= word << off;
+        if (off + bits > BitsPerElement) {
+            data[w + 1] |= word >>> (BitsPerElement - off);
+        }
+        size += bits;
+    }
+
+    /**
+     * Drop every bit from index newSize on, so size() becomes newSize. The
+     * capacity stays, so appending back up to it does not allocate.
+     * If newSize is negative or past size(), you should throw an
+     * IndexOutOfBoundsException
+     */
+    public void truncate(long newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException("Size " + newSize + " is out of bounds.");
+        }
+        int keep = wordsFor(newSize);
+        int used = wordsFor(size);
+        for (int i = keep; i < used; i++) {
+            data[i] = 0L;
+        }
+        if (newSize % BitsPerElement != 0) {
+            data[keep - 1] &= (1L << newSize) - 1L;
+        }
+        size = newSize;
+    }
+
+    private void checkBounds(long idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index " + idx + " is out of bounds.");
+        }
+    }
+
+    /**
+     * Returns the value of the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public boolean get(long ix) {
+        checkBounds(ix);
+        return (data[(int) (ix >>> 6)] & (1L << ix)) != 0;
+    }
+
+    /**
+     * Set the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void set(long ix) {
+        checkBounds(ix);
+        data[(int) (ix >>> 6)] |= 1L << ix;
+    }
+
+    /**
+     * Unset the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void unset(long ix) {
+        checkBounds(ix);
+        data[(int) (ix >>> 6)] &= ~(1L << ix);
+    }
+
+    /**
+     * Returns the number of bits that are set to 1
+     */
+    public long popcount() {
+        return BitKernels.INSTANCE.popcount(data, 0, wordsFor(size));
+    }
+
+    /**
+     * Returns a fixed-size BitVector holding the same size() bits
+     */
+    public BitVector toBitVector() {
+        BitVector out = new BitVector(size);
+        long[] words = out.words();
+        System.arraycopy(data, 0, words, 0, words.length);
+        return out;
+    }
+}
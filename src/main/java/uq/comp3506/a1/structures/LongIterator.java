@@ -0,0 +1,23 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+/**
+ * An iterator over primitive longs, so positions are not boxed into Long
+ * objects one at a time.
+ */
+public interface LongIterator {
+
+    /**
+     * @return true if next() has another value to return, false otherwise
+     */
+    boolean hasNext();
+
+    /**
+     * Returns the next value and moves past it.
+     * If there are no values left, this should throw a NoSuchElementException
+     *
+     * @return the next value
+     */
+    long next();
+}
@@ -0,0 +1,84 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+/**
+ * The 64-bit words of a bitvector, indexed by long, bit i of the vector
+ * being bit i % 64 of word i / 64. WordAlgorithms runs shift and rotate over
+ * this, so BitVector (a long[]) and OffHeapBitVector (ByteBuffer chunks) share
+ * one copy of each; the two sweep loops may be replaced by faster ones.
+ */
+interface LongWords {
+
+    long get(long w);
+
+    void set(long w, long v);
+
+    /**
+     * the in-place word loop of a left shift by wordShift words and bitShift
+     * (0 to 63) bits over the first words words; no tail masking
+     */
+    default void shiftLeft(long words, long wordShift, int bitShift) {
+        // a left shift only reads words below the one it is writing, so it
+        // sweeps from the top down
+        for (long i = words - 1; i >= 0; i--) {
+            long src = i - wordShift;
+            long v = 0L;
+            if (src >= 0) {
+                v = get(src) << bitShift;
+                if (bitShift != 0 && src - 1 >= 0) {
+                    v |= get(src - 1) >>> (BitVector.BitsPerElement - bitShift);
+                }
+            }
+            set(i, v);
+        }
+    }
+
+    /**
+     * as shiftLeft, for a right shift (sweeping from the bottom up)
+     */
+    default void shiftRight(long words, long wordShift, int bitShift) {
+        for (long i = 0; i < words; i++) {
+            long src = i + wordShift;
+            long v = 0L;
+            if (src < words) {
+                v = get(src) >>> bitShift;
+                if (bitShift != 0 && src + 1 < words) {
+                    v |= get(src + 1) << (BitVector.BitsPerElement - bitShift);
+                }
+            }
+            set(i, v);
+        }
+    }
+
+    /**
+     * The words of a long[], with the sweeps done by BitKernels
+     */
+    final class OfArray implements LongWords {
+        private final long[] a;
+
+        OfArray(long[] a) {
+            this.a = a;
+        }
+
+        @Override
+        public long get(long w) {
+            return a[(int) w];
+        }
+
+        @Override
+        public void set(long w, long v) {
+            a[(int) w] = v;
+        }
+
+        @Override
+        public void shiftLeft(long words, long wordShift, int bitShift) {
+            BitKernels.INSTANCE.shiftLeft(a, (int) words, (int) wordShift, bitShift);
+        }
+
+        @Override
+        public void shiftRight(long words, long wordShift, int bitShift) {
+            BitKernels.INSTANCE.shiftRight(a, (int) words, (int) wordShift, bitShift);
+        }
+    }
+}
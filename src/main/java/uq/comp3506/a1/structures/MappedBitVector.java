@@ -0,0 +1,145 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An OffHeapBitVector whose words are a file mapped read-write, made with
+ * BitVector.mapFile. Changes go straight to the page cache, so reopening the
+ * file is instant and the OS decides which pages stay resident; force()
+ * writes them to disk as a durable checkpoint.
+ * <p>
+ * File format, all little-endian:
+ * <pre>
+ *   bytes 0-7    magic "BITVEC01"
+ *   bytes 8-15   size in bits
+ *   bytes 16-    ceil(size / 64) words, bit i in bit i % 64 of word i / 64
+ * </pre>
+ * The unused tail bits of the last word are 0, as in BitVector.
+ * The words are mapped in the same 16MB chunks OffHeapBitVector allocates.
+ * A mapping lasts until the GC collects its buffer, so after close() the
+ * file may stay mapped for a while, though every change is already in it.
+ */
+public class MappedBitVector extends OffHeapBitVector {
+
+    private static final long MAGIC = 0x3130434556544942L; // "BITVEC01"
+    static final int HEADER_BYTES = 16;
+
+    /**
+     * null once closed
+     */
+    private MappedByteBuffer[] mapped;
+
+    private MappedBitVector(long size, MappedByteBuffer[] mapped) {
+        super(size, mapped);
+        this.mapped = mapped;
+    }
+
+    /**
+     * Map the file at path as a bitvector of size bits, creating it (all 0's)
+     * if it does not exist or is empty.
+     * A new file is sized first and its header written last, so a create cut
+     * short by a crash leaves either an empty file or one of exactly the
+     * right length whose header is still all 0's. Both are taken as
+     * unfinished and the create is completed; nothing else is ever
+     * overwritten.
+     * Throws an IOException if any other existing file is not in this format
+     * or does not hold exactly size bits.
+     */
+    static MappedBitVector map(Path path, long size) throws IOException {
+        long words = wordsFor(size);
+        long length = HEADER_BYTES + words * Long.BYTES;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            int n = 0;
+            while (header.hasRemaining() && n >= 0) {
+                n = channel.read(header, header.position());
+            }
+            long fileSize = channel.size();
+            if (fileSize == 0 || (fileSize == length && isBlank(header))) {
+                create(channel, size, length);
+            } else {
+                if (header.hasRemaining() || header.getLong(0) != MAGIC) {
+                    throw new IOException(path + " is not a bitvector file.");
+                }
+                if (header.getLong(8) != size) {
+                    throw new IOException(path + " holds " + header.getLong(8)
+                            + " bits, not " + size + ".");
+                }
+                if (channel.size() != length) {
+                    throw new IOException(path + " is truncated or has trailing bytes.");
+                }
+            }
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount(words)];
+            for (int c = 0; c < chunks.length; c++) {
+                long pos = HEADER_BYTES + ((long) c << CHUNK_SHIFT) * Long.BYTES;
+                long len = chunkWords(words, c) * Long.BYTES;
+                chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, pos, len);
+                chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            // the mappings stay valid after the channel is closed
+            return new MappedBitVector(size, chunks);
+        }
+    }
+
+    /**
+     * true if the whole header was read and is all 0
+     */
+    private static boolean isBlank(ByteBuffer header) {
+        if (header.hasRemaining()) {
+            return false;
+        }
+        for (int i = 0; i < HEADER_BYTES; i++) {
+            if (header.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lay out a new file (empty, or already sized by an unfinished create):
+     * first exactly length bytes of 0's, made durable, then the header.
+     * Until the header is on disk map() takes the file as unfinished.
+     */
+    private static void create(FileChannel channel, long size, long length) throws IOException {
+        if (channel.size() == 0) {
+            // writing the last byte extends the file, filling the gap with 0's
+            ByteBuffer zero = ByteBuffer.allocate(1);
+            while (zero.hasRemaining()) {
+                channel.write(zero, length - 1);
+            }
+            channel.force(true);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MAGIC).putLong(size).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(true);
+    }
+
+    /**
+     * Write every changed page back to the file, returning once it is on disk
+     */
+    public void force() {
+        checkOpen();
+        for (MappedByteBuffer chunk : mapped) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        mapped = null;
+        super.close();
+    }
+}
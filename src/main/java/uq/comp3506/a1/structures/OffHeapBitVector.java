@@ -0,0 +1,234 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A BitVector whose words live outside the Java heap, for vectors too big
+ * for a long[] (more than 2^37 bits) or that the GC should not have to scan.
+ * <p>
+ * The words are spread over direct ByteBuffers of 2^21 words (16MB) each,
+ * since a single buffer is indexed by int. Word w is in chunk w >>> 21 at
+ * byte offset (w & (2^21 - 1)) * 8, so every index is a long. Words are
+ * little-endian, so bit i of the vector is bit i % 64 of word i / 64 exactly
+ * as in BitVector (and in the MappedBitVector file format), and the unused
+ * tail bits of the last word are always 0. shift and rotate are the same
+ * WordAlgorithms code BitVector runs.
+ * <p>
+ * close() drops the buffers, and any use after it throws an
+ * IllegalStateException. The JDK has no supported way to free a direct
+ * buffer on demand, so the memory itself goes back when the GC collects
+ * them.
+ */
+public class OffHeapBitVector implements AutoCloseable {
+
+    private static final int BitsPerElement = BitVector.BitsPerElement;
+
+    static final int CHUNK_SHIFT = 21;
+    static final long CHUNK_WORDS = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_WORDS - 1;
+
+    /**
+     * The number of "active" bits that can be stored in this bitvector
+     */
+    private final long size;
+
+    /**
+     * The total number of bits allocated in the chunks
+     */
+    private final long capacity;
+
+    private final long words;
+
+    /**
+     * null once closed
+     */
+    private ByteBuffer[] chunks;
+
+    private final LongWords wordView = new LongWords() {
+        @Override
+        public long get(long w) {
+            return word(w);
+        }
+
+        @Override
+        public void set(long w, long v) {
+            setWord(w, v);
+        }
+    };
+
+    /**
+     * Constructs a zeroed bitvector of `size` bits in off-heap memory
+     */
+    public OffHeapBitVector(long size) {
+        this(size, allocate(size));
+    }
+
+    /**
+     * wraps chunks already laid out for size bits (see chunkCount and
+     * chunkWords), clearing any tail bits past size
+     */
+    OffHeapBitVector(long size, ByteBuffer[] chunks) {
+        this.size = size;
+        this.words = wordsFor(size);
+        this.capacity = words * BitsPerElement;
+        this.chunks = chunks;
+        maskTail();
+    }
+
+    private static ByteBuffer[] allocate(long size) {
+        long words = wordsFor(size);
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(words)];
+        for (int c = 0; c < chunks.length; c++) {
+            // allocateDirect zeroes the memory
+            chunks[c] = ByteBuffer.allocateDirect((int) (chunkWords(words, c) * Long.BYTES))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return chunks;
+    }
+
+    /**
+     * number of words needed for size bits
+     */
+    static long wordsFor(long size) {
+        if (size < 0 || size > Long.MAX_VALUE - BitsPerElement) {
+            throw new IllegalArgumentException("size out of range: " + size);
+        }
+        return (size + BitsPerElement - 1) / BitsPerElement;
+    }
+
+    /**
+     * number of chunks needed for the given number of words
+     */
+    static int chunkCount(long words) {
+        return (int) ((words + CHUNK_WORDS - 1) >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * number of words in chunk c; all but the last are full
+     */
+    static long chunkWords(long words, int c) {
+        return Math.min(CHUNK_WORDS, words - ((long) c << CHUNK_SHIFT));
+    }
+
+    /**
+     * Returns the total number of bits that can be used
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the total number of bits allocated
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    private long word(long w) {
+        return chunks[(int) (w >>> CHUNK_SHIFT)].getLong((int) (w & CHUNK_MASK) << 3);
+    }
+
+    private void setWord(long w, long v) {
+        chunks[(int) (w >>> CHUNK_SHIFT)].putLong((int) (w & CHUNK_MASK) << 3, v);
+    }
+
+    void checkOpen() {
+        if (chunks == null) {
+            throw new IllegalStateException("OffHeapBitVector is closed.");
+        }
+    }
+
+    private void checkBounds(long idx) {
+        checkOpen();
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index " + idx + " is out of bounds.");
+        }
+    }
+
+    private void maskTail() {
+        if (words > 0) {
+            setWord(words - 1, word(words - 1) & WordAlgorithms.tailMask(size));
+        }
+    }
+
+    /**
+     * Returns the value of the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public boolean get(long ix) {
+        checkBounds(ix);
+        return (word(ix >>> 6) & (1L << ix)) != 0;
+    }
+
+    /**
+     * Set the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void set(long ix) {
+        checkBounds(ix);
+        long w = ix >>> 6;
+        setWord(w, word(w) | (1L << ix));
+    }
+
+    /**
+     * Unset the bit at index ix
+     * If the index is out of bounds, you should throw an IndexOutOfBoundsException
+     */
+    public void unset(long ix) {
+        checkBounds(ix);
+        long w = ix >>> 6;
+        setWord(w, word(w) & ~(1L << ix));
+    }
+
+    /**
+     * Convert the bitvector to its complement
+     */
+    public void complement() {
+        checkOpen();
+        for (long w = 0; w < words; w++) {
+            setWord(w, ~word(w));
+        }
+        maskTail();
+    }
+
+    /**
+     * Shift the bits `dist` positions, exactly as BitVector.shift: positive
+     * is a left shift towards higher indices, and 0's are shifted in
+     */
+    public void shift(long dist) {
+        checkOpen();
+        WordAlgorithms.shift(wordView, size, dist);
+    }
+
+    /**
+     * Rotate the bits `dist` positions, exactly as BitVector.rotate
+     */
+    public void rotate(long dist) {
+        checkOpen();
+        WordAlgorithms.rotate(wordView, size, dist);
+    }
+
+    /**
+     * Returns the number of bits that are set to 1 across the entire bitvector
+     */
+    public long popcount() {
+        checkOpen();
+        long count = 0;
+        for (long w = 0; w < words; w++) {
+            count += Long.bitCount(word(w));
+        }
+        return count;
+    }
+
+    /**
+     * Drops the buffers (unmapping the file of a MappedBitVector once the GC
+     * collects them). Closing twice does nothing.
+     */
+    @Override
+    public void close() {
+        chunks = null;
+    }
+}
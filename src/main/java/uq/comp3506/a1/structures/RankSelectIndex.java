@@ -0,0 +1,155 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+/**
+ * Rank/select directory over the words of a BitVector, in the style of
+ * Jacobson's two-level rank directory (laid out as in "Poppy").
+ * <p>
+ * Every basic block of 2048 bits (32 words) gets one long: the high 32 bits
+ * are the number of ones before the block, counted from the start of its
+ * 2^32-bit upper block, and the low 30 bits are the popcounts of its first
+ * three 512-bit sub-blocks (10 bits each). One long per upper block holds the
+ * running total before it. That is 64 bits per 2048, about 3% of the vector.
+ * For select, the basic block holding every 8192nd one is sampled, which
+ * narrows the block search to the blocks between two samples. There is no
+ * in-block position table, so select1 is a binary search over those blocks:
+ * a few steps where ones are dense, but up to log2(size / 2048) where a
+ * stretch of 8192 ones is spread over most of the vector.
+ * <p>
+ * The index is a snapshot: BitVector drops it on any change and rebuilds it
+ * on the next rank1/select1 call.
+ */
+final class RankSelectIndex {
+
+    private static final int WORDS_PER_BLOCK = 32;  // 2048 bits
+    private static final int WORDS_PER_SUB = 8;     // 512 bits
+    private static final int BLOCKS_PER_UPPER = 1 << 21; // 2^32 bits
+    private static final int SAMPLE = 8192;
+
+    private final long[] data;
+    private final long[] blocks;
+    private final long[] uppers;
+    private final int[] samples;
+    private final long ones;
+
+    /**
+     * build the directory over data in one O(words) pass
+     */
+    RankSelectIndex(long[] data) {
+        this.data = data;
+        int numBlocks = (data.length + WORDS_PER_BLOCK - 1) / WORDS_PER_BLOCK;
+        // one extra block so rank1(size) can look up the block after the last
+        this.blocks = new long[numBlocks + 1];
+        this.uppers = new long[numBlocks / BLOCKS_PER_UPPER + 1];
+
+        long total = 0;
+        for (int b = 0; b <= numBlocks; b++) {
+            if (b % BLOCKS_PER_UPPER == 0) {
+                uppers[b / BLOCKS_PER_UPPER] = total;
+            }
+            long before = total - uppers[b / BLOCKS_PER_UPPER];
+            long subCounts = 0;
+            int w = b * WORDS_PER_BLOCK;
+            for (int sub = 0; sub < WORDS_PER_BLOCK / WORDS_PER_SUB; sub++) {
+                int c = 0;
+                for (int end = Math.min(w + WORDS_PER_SUB, data.length); w < end; w++) {
+                    c += Long.bitCount(data[w]);
+                }
+                if (sub < 3) {
+                    subCounts |= (long) c << (20 - 10 * sub);
+                }
+                total += c;
+            }
+            blocks[b] = (before << 32) | subCounts;
+        }
+        this.ones = total;
+
+        // samples[s] = block holding the (s * SAMPLE)-th one
+        this.samples = new int[(int) ((total + SAMPLE - 1) / SAMPLE)];
+        int s = 0;
+        for (int b = 0; b < numBlocks && s < samples.length; b++) {
+            while (s < samples.length && (long) s * SAMPLE < blockRank(b + 1)) {
+                samples[s++] = b;
+            }
+        }
+    }
+
+    long ones() {
+        return ones;
+    }
+
+    /**
+     * number of ones before basic block b
+     */
+    private long blockRank(int b) {
+        return uppers[b / BLOCKS_PER_UPPER] + (blocks[b] >>> 32);
+    }
+
+    /**
+     * popcount of sub-block sub (0 to 2) of the block whose entry is e
+     */
+    private static int subCount(long e, int sub) {
+        return (int) (e >>> (20 - 10 * sub)) & 1023;
+    }
+
+    /**
+     * number of ones in [0, i), 0 <= i <= size
+     */
+    long rank1(long i) {
+        int word = (int) (i >>> 6);
+        int b = word / WORDS_PER_BLOCK;
+        long e = blocks[b];
+        long r = blockRank(b);
+        int sub = (word % WORDS_PER_BLOCK) / WORDS_PER_SUB;
+        for (int k = 0; k < sub; k++) {
+            r += subCount(e, k);
+        }
+        for (int w = b * WORDS_PER_BLOCK + sub * WORDS_PER_SUB; w < word; w++) {
+            r += Long.bitCount(data[w]);
+        }
+        int bit = (int) (i & 63);
+        if (bit != 0) {
+            r += Long.bitCount(data[word] & ((1L << bit) - 1L));
+        }
+        return r;
+    }
+
+    /**
+     * position of the j-th one (counting from 0), 0 <= j < ones, in
+     * O(log(blocks between the samples around j)) steps
+     */
+    long select1(long j) {
+        // last block whose rank is <= j, searched between the two samples around j
+        int s = (int) (j / SAMPLE);
+        int lo = samples[s];
+        int hi = s + 1 < samples.length ? samples[s + 1] : blocks.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (blockRank(mid) <= j) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        long r = j - blockRank(lo);
+        long e = blocks[lo];
+        int sub = 0;
+        while (sub < 3 && r >= subCount(e, sub)) {
+            r -= subCount(e, sub);
+            sub++;
+        }
+        int w = lo * WORDS_PER_BLOCK + sub * WORDS_PER_SUB;
+        int c = Long.bitCount(data[w]);
+        while (r >= c) {
+            r -= c;
+            c = Long.bitCount(data[++w]);
+        }
+        // drop the r lowest ones of the word, the next is the answer
+        long x = data[w];
+        for (long k = 0; k < r; k++) {
+            x &= x - 1;
+        }
+        return (long) w * 64 + Long.numberOfTrailingZeros(x);
+    }
+}
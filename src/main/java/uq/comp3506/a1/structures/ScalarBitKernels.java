@@ -0,0 +1,87 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+/**
+ * Plain counted loops over the words. C2 still unrolls and auto-vectorizes
+ * the simple ones (not, combine); popcount and shift stay scalar.
+ */
+final class ScalarBitKernels extends BitKernels {
+
+    @Override
+    String name() {
+        return "scalar";
+    }
+
+    @Override
+    void not(long[] a, int from, int to) {
+        for (int i = from; i < to; i++) {
+            a[i] = ~a[i];
+        }
+    }
+
+    @Override
+    void combine(int op, long[] dst, long[] a, long[] b, int n) {
+        // one loop per op so each stays a simple, vectorizable loop
+        if (op == AND) {
+            for (int i = 0; i < n; i++) {
+                dst[i] = a[i] & b[i];
+            }
+        } else if (op == OR) {
+            for (int i = 0; i < n; i++) {
+                dst[i] = a[i] | b[i];
+            }
+        } else if (op == XOR) {
+            for (int i = 0; i < n; i++) {
+                dst[i] = a[i] ^ b[i];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                dst[i] = a[i] & ~b[i];
+            }
+        }
+    }
+
+    @Override
+    long popcount(long[] a, int from, int to) {
+        long count = 0;
+        for (int i = from; i < to; i++) {
+            count += Long.bitCount(a[i]);
+        }
+        return count;
+    }
+
+    @Override
+    void shiftLeft(long[] a, int words, int wordShift, int bitShift) {
+        // a left shift only reads words below the one it is writing, so it
+        // sweeps from the top down
+        for (int i = words - 1; i >= 0; i--) {
+            int src = i - wordShift;
+            long v = 0L;
+            if (src >= 0) {
+                v = a[src] << bitShift;
+                if (bitShift != 0 && src - 1 >= 0) {
+                    //unsigned right shift for zeros on the left
+                    v |= a[src - 1] >>> (BitVector.BitsPerElement - bitShift);
+                }
+            }
+            a[i] = v;
+        }
+    }
+
+    @Override
+    void shiftRight(long[] a, int words, int wordShift, int bitShift) {
+        for (int i = 0; i < words; i++) {
+            int src = i + wordShift;
+            long v = 0L;
+            if (src < words) {
+                //unsigned right shift for zeros on the left
+                v = a[src] >>> bitShift;
+                if (bitShift != 0 && src + 1 < words) {
+                    v |= a[src + 1] << (BitVector.BitsPerElement - bitShift);
+                }
+            }
+            a[i] = v;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+import java.util.Arrays;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The bulk word loops on LongVector lanes of the widest shape the CPU has
+ * (8 longs with AVX-512, 4 with AVX2). Each loop runs whole vectors and
+ * leaves the last few words to the scalar kernels.
+ * Only loaded through BitKernels.select, when jdk.incubator.vector is present
+ * and isUsable().
+ */
+final class VectorBitKernels extends BitKernels {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private final ScalarBitKernels scalar = new ScalarBitKernels();
+
+    /**
+     * true if the CPU has vectors of at least 2 longs; with fewer there is
+     * no SIMD worth having and BitKernels stays scalar
+     */
+    static boolean isUsable() {
+        return LongVector.SPECIES_PREFERRED.length() >= 2;
+    }
+
+    @Override
+    String name() {
+        return "vector x" + LANES;
+    }
+
+    @Override
+    void not(long[] a, int from, int to) {
+        int i = from;
+        for (int end = to - LANES; i <= end; i += LANES) {
+            LongVector.fromArray(SPECIES, a, i).not().intoArray(a, i);
+        }
+        scalar.not(a, i, to);
+    }
+
+    @Override
+    void combine(int op, long[] dst, long[] a, long[] b, int n) {
+        VectorOperators.Binary lanewise = op == AND ? VectorOperators.AND
+                : op == OR ? VectorOperators.OR
+                : op == XOR ? VectorOperators.XOR
+                : VectorOperators.AND_NOT;
+        int i = 0;
+        for (int end = n - LANES; i <= end; i += LANES) {
+            LongVector va = LongVector.fromArray(SPECIES, a, i);
+            LongVector vb = LongVector.fromArray(SPECIES, b, i);
+            va.lanewise(lanewise, vb).intoArray(dst, i);
+        }
+        for (; i < n; i++) {
+            dst[i] = op == AND ? a[i] & b[i]
+                    : op == OR ? a[i] | b[i]
+                    : op == XOR ? a[i] ^ b[i]
+                    : a[i] & ~b[i];
+        }
+    }
+
+    @Override
+    long popcount(long[] a, int from, int to) {
+        // per-lane counts are summed lane-wise and reduced once at the end
+        LongVector sums = LongVector.zero(SPECIES);
+        int i = from;
+        for (int end = to - LANES; i <= end; i += LANES) {
+            LongVector v = LongVector.fromArray(SPECIES, a, i);
+            sums = sums.add(v.lanewise(VectorOperators.BIT_COUNT));
+        }
+        return sums.reduceLanes(VectorOperators.ADD) + scalar.popcount(a, i, to);
+    }
+
+    @Override
+    void shiftLeft(long[] a, int words, int wordShift, int bitShift) {
+        if (bitShift == 0) {
+            System.arraycopy(a, 0, a, wordShift, words - wordShift);
+            Arrays.fill(a, 0, wordShift, 0L);
+            return;
+        }
+        // top down, as in the scalar loop; each block of lanes is loaded
+        // before it is stored and only reads from below, so it is safe in place
+        int hi = words;
+        int lo = wordShift + 1; // the lowest i whose src - 1 is still a word
+        while (hi - LANES >= lo) {
+            int base = hi - LANES;
+            LongVector cur = LongVector.fromArray(SPECIES, a, base - wordShift);
+            LongVector below = LongVector.fromArray(SPECIES, a, base - wordShift - 1);
+            cur.lanewise(VectorOperators.LSHL, bitShift)
+                    .or(below.lanewise(VectorOperators.LSHR, BitVector.BitsPerElement - bitShift))
+                    .intoArray(a, base);
+            hi = base;
+        }
+        // the words below hi are still untouched, finish them as the scalar loop does
+        scalar.shiftLeft(a, hi, wordShift, bitShift);
+    }
+
+    @Override
+    void shiftRight(long[] a, int words, int wordShift, int bitShift) {
+        if (bitShift == 0) {
+            System.arraycopy(a, wordShift, a, 0, words - wordShift);
+            Arrays.fill(a, words - wordShift, words, 0L);
+            return;
+        }
+        // bottom up, the mirror image of shiftLeft
+        int i = 0;
+        int end = words - wordShift - 1; // i + wordShift + 1 must stay a word
+        for (; i + LANES <= end; i += LANES) {
+            LongVector cur = LongVector.fromArray(SPECIES, a, i + wordShift);
+            LongVector above = LongVector.fromArray(SPECIES, a, i + wordShift + 1);
+            cur.lanewise(VectorOperators.LSHR, bitShift)
+                    .or(above.lanewise(VectorOperators.LSHL, BitVector.BitsPerElement - bitShift))
+                    .intoArray(a, i);
+        }
+        for (; i < words; i++) {
+            int src = i + wordShift;
+            long v = 0L;
+            if (src < words) {
+                v = a[src] >>> bitShift;
+                if (src + 1 < words) {
+                    v |= a[src + 1] << (BitVector.BitsPerElement - bitShift);
+                }
+            }
+            a[i] = v;
+        }
+    }
+}
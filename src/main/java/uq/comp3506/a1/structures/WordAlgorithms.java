@@ -0,0 +1,143 @@
+// @edu:student-assignment
+
+package uq.comp3506.a1.structures;
+
+/**
+ * shift and rotate for any LongWords holding size bits (the unused tail bits
+ * of the last word 0), shared by BitVector and OffHeapBitVector. shift works
+ * in place, rotate with a copy of at most half the bits, and both leave the
+ * tail masked.
+ */
+final class WordAlgorithms {
+
+    private static final int BitsPerElement = BitVector.BitsPerElement;
+
+    private WordAlgorithms() {
+    }
+
+    /**
+     * mask to zero everything past size in the last word
+     */
+    static long tailMask(long size) {
+        int unusedBits = (int) (size % BitsPerElement);
+        return unusedBits == 0 ? ~0L : (1L << unusedBits) - 1L;
+    }
+
+    private static long wordsFor(long size) {
+        return (size + BitsPerElement - 1) / BitsPerElement;
+    }
+
+    /**
+     * BitVector.shift: positive dist shifts towards higher indices, and the
+     * bits that fall off either end are replaced with 0's
+     */
+    static void shift(LongWords w, long size, long dist) {
+        if (dist == 0 || size == 0) {
+            return;
+        }
+        long words = wordsFor(size);
+        if (dist >= size || dist <= -size) {
+            for (long i = 0; i < words; i++) {
+                w.set(i, 0L);
+            }
+            return;
+        }
+        if (dist > 0) {
+            w.shiftLeft(words, dist / BitsPerElement, (int) (dist % BitsPerElement));
+        } else {
+            w.shiftRight(words, -dist / BitsPerElement, (int) (-dist % BitsPerElement));
+        }
+        w.set(words - 1, w.get(words - 1) & tailMask(size));
+    }
+
+    /**
+     * BitVector.rotate: as shift, but the bits moved off one end come back
+     * in at the other. Returns false if nothing moved (dist is a multiple of
+     * size).
+     * <p>
+     * The smaller side of the rotation (at most size / 2 bits) is copied out,
+     * the rest is moved by one shift sweep, and the copy is laid back in at
+     * the other end by a second sweep, so each word is read and written about
+     * twice, front to back.
+     */
+    static boolean rotate(LongWords w, long size, long dist) {
+        if (size == 0) {
+            return false;
+        }
+        // brings the dist down to in between 0 and size
+        long normDist = dist % size;
+        if (normDist < 0) {
+            normDist += size;
+        }
+        if (normDist == 0) {
+            return false;
+        }
+        long words = wordsFor(size);
+        if (normDist <= size - normDist) {
+            // left by normDist: the top normDist bits wrap round to the bottom
+            long[] wrapped = copyBits(w, size - normDist, normDist);
+            w.shiftLeft(words, normDist / BitsPerElement, (int) (normDist % BitsPerElement));
+            w.set(words - 1, w.get(words - 1) & tailMask(size));
+            pasteBits(w, 0, normDist, wrapped);
+        } else {
+            // right by the rest: the bottom size - normDist bits wrap to the top
+            long back = size - normDist;
+            long[] wrapped = copyBits(w, 0, back);
+            w.shiftRight(words, back / BitsPerElement, (int) (back % BitsPerElement));
+            pasteBits(w, normDist, back, wrapped);
+        }
+        return true;
+    }
+
+    /**
+     * the len bits from index pos, packed from bit 0 of a new array
+     */
+    private static long[] copyBits(LongWords w, long pos, long len) {
+        long[] out = new long[(int) wordsFor(len)];
+        for (int j = 0; j < out.length; j++) {
+            long at = (long) j * BitsPerElement;
+            out[j] = getBits(w, pos + at, (int) Math.min(BitsPerElement, len - at));
+        }
+        return out;
+    }
+
+    /**
+     * write the len bits packed in src over the bits from index pos
+     */
+    private static void pasteBits(LongWords w, long pos, long len, long[] src) {
+        for (int j = 0; j < src.length; j++) {
+            long at = (long) j * BitsPerElement;
+            putBits(w, pos + at, (int) Math.min(BitsPerElement, len - at), src[j]);
+        }
+    }
+
+    /**
+     * Returns the len (1 to 64) bits starting at index pos as the low bits of
+     * a long; pos need not be word aligned
+     */
+    static long getBits(LongWords w, long pos, int len) {
+        long i = pos / BitsPerElement;
+        int off = (int) (pos % BitsPerElement);
+        long v = w.get(i) >>> off;
+        if (off + len > BitsPerElement) {
+            v |= w.get(i + 1) << (BitsPerElement - off);
+        }
+        return len == BitsPerElement ? v : v & ((1L << len) - 1L);
+    }
+
+    /**
+     * Overwrites the len (1 to 64) bits starting at index pos with the low
+     * bits of v
+     */
+    static void putBits(LongWords w, long pos, int len, long v) {
+        long i = pos / BitsPerElement;
+        int off = (int) (pos % BitsPerElement);
+        long mask = len == BitsPerElement ? ~0L : (1L << len) - 1L;
+        v &= mask;
+        w.set(i, (w.get(i) & ~(mask << off)) | (v << off));
+        if (off + len > BitsPerElement) {
+            long spillMask = (1L << (off + len - BitsPerElement)) - 1L;
+            w.set(i + 1, (w.get(i + 1) & ~spillMask) | (v >>> (BitsPerElement - off)));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 import java.util.*;
 import uq.comp3506.a1.structures.BitVector;
+import uq.comp3506.a1.structures.LongIterator;
 
 /**
  * Run with:  java -ea TestBitVector
@@ -67,6 +68,15 @@ public class TestBitVector {
             bs.or(dst);
         }
         int popcount() { return bs.cardinality(); }
+        int popcount(int from, int to) { return bs.get(from, to).cardinality(); }
+        int runcount(int from, int to) {
+            int best = 0, cur = 0;
+            for (int i = from; i < to; i++) {
+                cur = bs.get(i) ? cur + 1 : 0;
+                best = Math.max(best, cur);
+            }
+            return best;
+        }
 
         private void checkIndex(int i) {
             if (i < 0 || i >= n) throw new IndexOutOfBoundsException("ix=" + i + " size=" + n);
@@ -107,6 +117,9 @@ public class TestBitVector {
 
     private static void assertSameContent(Oracle o, BitVector bv) {
         check(bv.size() == o.n, "size mismatch: bv=" + bv.size() + " oracle=" + o.n);
+        check(bv.popcount() == o.popcount(), "popcount mismatch: bv=" + bv.popcount() + " oracle=" + o.popcount());
+        check(bv.runcount() == o.runcount(0, o.n),
+                "runcount mismatch: bv=" + bv.runcount() + " oracle=" + o.runcount(0, o.n));
         boolean[] a = snapshot(bv);
         boolean[] b = snapshot(o);
         if (a.length != b.length) throw new AssertionError("length mismatch");
@@ -176,6 +189,13 @@ public class TestBitVector {
 
         bv.complement(); o.complement();
         assertSameContent(o, bv);
+
+        // past 2^31 bits the last word's index no longer fits in an int of bits
+        long big = (1L << 31) + 5;
+        BitVector large = new BitVector(big);
+        large.complement();
+        check(large.popcount() == big, "complement of " + big + " bits masks only the tail");
+        check(large.get(big - 1), "last bit set");
     }
 
     private static void testShiftSmall() {
@@ -219,6 +239,393 @@ public class TestBitVector {
         assertSameContent(o, bv);
     }
 
+    private static void testRotateLarge() {
+        // multi-word sizes, with distances that straddle words and wrap several times
+        // 768 is 12 words, so whole-word moves of 8 or 9 words take several cycles
+        int[] sizes = {640, 768, 1000, 4097};
+        long[] dists = {1, 63, 64, 65, 127, 333, -1, -64, -200, 512, 577, -3000, -4097,
+                10_000_019L, -10_000_019L};
+        Random r = new Random(11);
+        for (int n : sizes) {
+            BitVector bv = new BitVector(n);
+            Oracle o = new Oracle(n);
+            for (int i = 0; i < n; i++) {
+                if (r.nextInt(3) == 0) { bv.set(i); o.set(i); }
+            }
+            for (long d : dists) {
+                bv.rotate(d); o.rotate((int) (d % n));
+                assertSameContent(o, bv);
+            }
+        }
+    }
+
+    private static void testShiftLarge() {
+        int[] sizes = {640, 1000, 4097};
+        int[] dists = {1, 63, 64, 65, 127, 333, -1, -64, -65, -200, 5};
+        Random r = new Random(12);
+        for (int n : sizes) {
+            BitVector bv = new BitVector(n);
+            Oracle o = new Oracle(n);
+            for (int d : dists) {
+                // refill between shifts so the vector does not just drain to zero
+                for (int i = 0; i < n; i++) {
+                    if (r.nextInt(3) == 0) { bv.set(i); o.set(i); }
+                }
+                bv.shift(d); o.shift(d);
+                assertSameContent(o, bv);
+            }
+        }
+    }
+
+    private static void testPopcountRuncountRanges() {
+        Random r = new Random(13);
+        int[] sizes = {0, 1, 63, 64, 65, 200, 1000};
+        for (int n : sizes) {
+            BitVector bv = new BitVector(n);
+            Oracle o = new Oracle(n);
+            // long runs, including ones that cross word boundaries and reach the end
+            int i = 0;
+            while (i < n) {
+                int len = 1 + r.nextInt(150);
+                boolean on = r.nextBoolean();
+                for (int j = i; j < Math.min(n, i + len); j++) {
+                    if (on) { bv.set(j); o.set(j); }
+                }
+                i += len;
+            }
+            for (int t = 0; t < 200; t++) {
+                int from = n == 0 ? 0 : r.nextInt(n + 1);
+                int to = from + (n == from ? 0 : r.nextInt(n - from + 1));
+                check(bv.popcount(from, to) == o.popcount(from, to), "popcount[" + from + "," + to + ")");
+                check(bv.runcount(from, to) == o.runcount(from, to), "runcount[" + from + "," + to + ")");
+            }
+            assertSameContent(o, bv);
+        }
+        BitVector all = new BitVector(130);
+        all.complement();
+        check(all.popcount() == 130 && all.runcount() == 130, "all ones");
+        check(all.runcount(5, 69) == 64, "all ones range");
+        boolean threw = false;
+        try { all.popcount(10, 131); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "range past size should throw");
+        threw = false;
+        try { all.runcount(10, 9); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "from > to should throw");
+    }
+
+    private static void testRankSelect() {
+        Random r = new Random(14);
+        // sizes around the 512-bit sub-block and 2048-bit block edges, plus
+        // more than 8192 ones so select uses several samples
+        int[] sizes = {0, 1, 64, 511, 512, 2048, 2049, 4096 + 7, 40_000};
+        for (int n : sizes) {
+            for (int density : new int[]{1, 50, 99}) {
+                BitVector bv = new BitVector(n);
+                for (int i = 0; i < n; i++) {
+                    if (r.nextInt(100) < density) bv.set(i);
+                }
+                long ones = 0;
+                for (int i = 0; i <= n; i++) {
+                    check(bv.rank1(i) == ones, "rank1(" + i + ") n=" + n);
+                    if (i < n && bv.get(i)) {
+                        check(bv.select1(ones) == i, "select1(" + ones + ") n=" + n);
+                        ones++;
+                    }
+                }
+                boolean threw = false;
+                try { bv.select1(ones); } catch (IndexOutOfBoundsException e) { threw = true; }
+                check(threw, "select1 past the last one should throw");
+                threw = false;
+                try { bv.rank1(n + 1); } catch (IndexOutOfBoundsException e) { threw = true; }
+                check(threw, "rank1 past size should throw");
+            }
+        }
+        // the directory must follow every kind of change
+        BitVector bv = new BitVector(3000);
+        bv.set(2999);
+        check(bv.rank1(3000) == 1 && bv.select1(0) == 2999, "single bit");
+        bv.unset(2999);
+        check(bv.rank1(3000) == 0, "after unset");
+        bv.complement();
+        check(bv.rank1(3000) == 3000 && bv.select1(2047) == 2047, "after complement");
+        bv.shift(1000);
+        check(bv.rank1(1000) == 0 && bv.select1(0) == 1000, "after shift");
+        bv.rotate(-1500);
+        check(bv.select1(0) == 0 && bv.rank1(3000) == 2000, "after rotate");
+        bv.set(2000); // inside the gap [1500, 2500) the rotate left
+        check(bv.rank1(3000) == 2001, "after set");
+    }
+
+    private static BitVector randomVector(Random r, int n, Oracle o) {
+        BitVector bv = new BitVector(n);
+        for (int i = 0; i < n; i++) {
+            if (r.nextBoolean()) { bv.set(i); o.set(i); }
+        }
+        return bv;
+    }
+
+    private static void testBulkOps() {
+        Random r = new Random(15);
+        int[] sizes = {0, 1, 63, 64, 65, 200, 1000};
+        for (int n : sizes) {
+            for (int op = 0; op < 4; op++) {
+                Oracle oa = new Oracle(n);
+                Oracle ob = new Oracle(n);
+                BitVector a = randomVector(r, n, oa);
+                BitVector b = randomVector(r, n, ob);
+                // complemented operands have all-ones edge words
+                if (r.nextBoolean()) { a.complement(); oa.complement(); }
+                if (r.nextBoolean()) { b.complement(); ob.complement(); }
+                Oracle expected = new Oracle(n);
+                expected.bs.or(oa.bs);
+                BitVector out;
+                if (op == 0) {
+                    expected.bs.and(ob.bs);
+                    out = BitVector.and(a, b);
+                    a.and(b);
+                } else if (op == 1) {
+                    expected.bs.or(ob.bs);
+                    out = BitVector.or(a, b);
+                    a.or(b);
+                } else if (op == 2) {
+                    expected.bs.xor(ob.bs);
+                    out = BitVector.xor(a, b);
+                    a.xor(b);
+                } else {
+                    expected.bs.andNot(ob.bs);
+                    out = BitVector.andNot(a, b);
+                    a.andNot(b);
+                }
+                assertSameContent(expected, out);
+                assertSameContent(expected, a);
+                assertSameContent(ob, b);
+            }
+        }
+        boolean threw = false;
+        try { new BitVector(10).or(new BitVector(11)); } catch (IllegalArgumentException e) { threw = true; }
+        check(threw, "size mismatch should throw");
+        threw = false;
+        try { BitVector.xor(new BitVector(64), new BitVector(63)); } catch (IllegalArgumentException e) { threw = true; }
+        check(threw, "size mismatch should throw (static)");
+    }
+
+    private static void testRangeSetUnsetFlip() {
+        Random r = new Random(16);
+        int[] sizes = {0, 1, 63, 64, 65, 200, 1000};
+        for (int n : sizes) {
+            BitVector bv = new BitVector(n);
+            Oracle o = new Oracle(n);
+            for (int t = 0; t < 300; t++) {
+                int from = n == 0 ? 0 : r.nextInt(n + 1);
+                int to = from + (n == from ? 0 : r.nextInt(n - from + 1));
+                int which = r.nextInt(3);
+                if (which == 0) {
+                    bv.set(from, to);
+                    o.bs.set(from, to);
+                } else if (which == 1) {
+                    bv.unset(from, to);
+                    o.bs.clear(from, to);
+                } else {
+                    bv.flip(from, to);
+                    o.bs.flip(from, to);
+                }
+                if ((t & 31) == 0) assertSameContent(o, bv);
+            }
+            assertSameContent(o, bv);
+            // flip over everything matches complement, tail included
+            BitVector c = new BitVector(n);
+            c.flip(0, n);
+            check(c.popcount() == n, "flip(0, size) sets all " + n + " bits");
+        }
+        BitVector bv = new BitVector(100);
+        boolean threw = false;
+        try { bv.set(50, 101); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "range past size should throw");
+        threw = false;
+        try { bv.flip(-1, 3); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "negative from should throw");
+        threw = false;
+        try { bv.unset(9, 8); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "from > to should throw");
+    }
+
+    private static void testNextPreviousAndIterator() {
+        Random r = new Random(17);
+        int[] sizes = {0, 1, 63, 64, 65, 200, 1000, 5000};
+        for (int n : sizes) {
+            for (int density : new int[]{0, 1, 50, 99, 100}) {
+                Oracle o = new Oracle(n);
+                BitVector bv = new BitVector(n);
+                for (int i = 0; i < n; i++) {
+                    if (r.nextInt(100) < density) { bv.set(i); o.set(i); }
+                }
+                for (int i = 0; i <= n + 1; i++) {
+                    long expNext = i >= n ? -1 : o.bs.nextSetBit(i);
+                    int clear = o.bs.nextClearBit(i);
+                    long expClear = i >= n || clear >= n ? -1 : clear;
+                    long expPrev = o.bs.previousSetBit(Math.min(i, n - 1));
+                    check(bv.nextSetBit(i) == expNext, "nextSetBit(" + i + ") n=" + n);
+                    check(bv.nextClearBit(i) == expClear, "nextClearBit(" + i + ") n=" + n);
+                    check(bv.previousSetBit(i) == expPrev, "previousSetBit(" + i + ") n=" + n);
+                }
+                check(bv.previousSetBit(-1) == -1, "previousSetBit(-1)");
+                LongIterator it = bv.setBits();
+                int expected = o.bs.nextSetBit(0);
+                while (expected >= 0) {
+                    check(it.hasNext(), "iterator ended early n=" + n);
+                    check(it.next() == expected, "iterator at " + expected + " n=" + n);
+                    expected = o.bs.nextSetBit(expected + 1);
+                }
+                check(!it.hasNext(), "iterator should be done n=" + n);
+                boolean threw = false;
+                try { it.next(); } catch (NoSuchElementException e) { threw = true; }
+                check(threw, "next past the end should throw");
+            }
+        }
+        boolean threw = false;
+        try { new BitVector(10).nextSetBit(-1); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "negative from should throw");
+        threw = false;
+        try { new BitVector(10).previousSetBit(-2); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "from below -1 should throw");
+    }
+
+    private static byte[] serialize(BitVector bv) {
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try {
+            bv.writeTo(java.nio.channels.Channels.newChannel(bytes));
+        } catch (java.io.IOException e) {
+            throw new AssertionError("writeTo failed", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static BitVector deserialize(byte[] bytes) throws java.io.IOException {
+        return BitVector.readFrom(
+                java.nio.channels.Channels.newChannel(new java.io.ByteArrayInputStream(bytes)));
+    }
+
+    private static void assertRoundTrip(BitVector bv, String msg) throws java.io.IOException {
+        BitVector back = deserialize(serialize(bv));
+        check(back.size() == bv.size(), msg + ": size");
+        check(back.popcount() == bv.popcount(), msg + ": popcount");
+        for (long i = 0; i < bv.size(); i++) {
+            check(back.get(i) == bv.get(i), msg + ": bit " + i);
+        }
+    }
+
+    private static void testSerialization() throws java.io.IOException {
+        Random r = new Random(23);
+        int[] sizes = {0, 1, 63, 64, 65, 1000, 100_000};
+        for (int n : sizes) {
+            BitVector random = new BitVector(n);
+            BitVector sparse = new BitVector(n);
+            BitVector runs = new BitVector(n);
+            for (int i = 0; i < n; i++) {
+                if (r.nextBoolean()) random.set(i);
+                if (r.nextInt(1000) == 0) sparse.set(i);
+            }
+            for (int i = 0; i < n; i += 5000) runs.set(i, Math.min(n, i + 2000));
+            assertRoundTrip(random, "random n=" + n);
+            assertRoundTrip(sparse, "sparse n=" + n);
+            assertRoundTrip(runs, "runs n=" + n);
+            BitVector full = new BitVector(n);
+            full.complement();
+            assertRoundTrip(full, "all ones n=" + n);
+        }
+        // the encoding follows the content
+        BitVector dense = new BitVector(100_000);
+        for (int i = 0; i < 100_000; i++) if (r.nextBoolean()) dense.set(i);
+        check(serialize(dense).length == 13 + 1563 * 8, "dense vectors go out as raw words");
+        BitVector sparse = new BitVector(100_000);
+        for (int i = 0; i < 100; i++) sparse.set(i * 997);
+        check(serialize(sparse).length < 13 + 2 * 100 + 2, "sparse vectors go out as positions");
+        BitVector clustered = new BitVector(100_000);
+        clustered.set(10_000, 60_000);
+        clustered.set(70_000, 100_000);
+        check(serialize(clustered).length < 13 + 20, "clustered vectors go out as runs");
+
+        // several records back to back in one stream, each read leaving the
+        // channel at the start of the next, with one byte of other data after
+        BitVector[] all = {dense, sparse, clustered, new BitVector(0), dense, new BitVector(70)};
+        java.io.ByteArrayOutputStream stream = new java.io.ByteArrayOutputStream();
+        java.nio.channels.WritableByteChannel out = java.nio.channels.Channels.newChannel(stream);
+        for (BitVector bv : all) bv.writeTo(out);
+        stream.write(42);
+        java.nio.channels.ReadableByteChannel in = java.nio.channels.Channels.newChannel(
+                new java.io.ByteArrayInputStream(stream.toByteArray()));
+        for (int k = 0; k < all.length; k++) {
+            BitVector back = BitVector.readFrom(in);
+            check(back.size() == all[k].size() && back.popcount() == all[k].popcount(),
+                    "record " + k + " of the stream");
+            for (long i = 0; i < back.size(); i++) {
+                check(back.get(i) == all[k].get(i), "record " + k + " bit " + i);
+            }
+        }
+        java.nio.ByteBuffer rest = java.nio.ByteBuffer.allocate(2);
+        check(in.read(rest) == 1 && rest.get(0) == 42, "the bytes after the last record are left");
+
+        // bad input
+        byte[] good = serialize(clustered);
+        byte[] badMagic = good.clone();
+        badMagic[0] ^= 1;
+        boolean threw = false;
+        try { deserialize(badMagic); } catch (java.io.IOException e) { threw = true; }
+        check(threw, "bad magic should throw");
+        threw = false;
+        try { deserialize(Arrays.copyOf(serialize(dense), 500)); } catch (java.io.IOException e) { threw = true; }
+        check(threw, "truncated stream should throw");
+        // a header claiming more bits than a BitVector holds, or more set
+        // bits than that, is rejected before anything is allocated for it
+        byte[] huge = good.clone();
+        huge[12] = 0x7F;
+        threw = false;
+        try { deserialize(huge); } catch (java.io.IOException e) { threw = true; }
+        check(threw, "impossible size should throw");
+        byte[] tooMany = serialize(sparse);
+        tooMany[13] = (byte) 0xFF;
+        tooMany[14] = (byte) 0xFF;
+        tooMany[15] = (byte) 0xFF;
+        tooMany[16] = (byte) 0x7F;
+        threw = false;
+        try { deserialize(tooMany); } catch (java.io.IOException e) { threw = true; }
+        check(threw, "more set bits than the size should throw");
+    }
+
+    private static void testWideKernels() {
+        // enough words for many full vector lanes plus a ragged end; run with
+        // --add-modules jdk.incubator.vector to check the vector kernels too
+        Random r = new Random(25);
+        int[] sizes = {64 * 8 * 3 + 17, 10_000};
+        for (int n : sizes) {
+            Oracle o = new Oracle(n);
+            BitVector bv = randomVector(r, n, o);
+            for (int step = 0; step < 200; step++) {
+                int op = r.nextInt(5);
+                if (op == 0) {
+                    int dist = r.nextInt(2 * n) - n;
+                    // word-aligned shifts take the copy path
+                    if (r.nextInt(4) == 0) dist = dist / 64 * 64;
+                    bv.shift(dist); o.shift(dist);
+                } else if (op == 1) {
+                    bv.complement(); o.complement();
+                } else if (op == 2) {
+                    int from = r.nextInt(n + 1);
+                    int to = from + r.nextInt(n - from + 1);
+                    bv.flip(from, to); o.bs.flip(from, to);
+                    check(bv.popcount(from, to) == o.popcount(from, to), "popcount range n=" + n);
+                } else {
+                    Oracle other = new Oracle(n);
+                    BitVector b = randomVector(r, n, other);
+                    if (op == 3) { bv.xor(b); o.bs.xor(other.bs); }
+                    else { bv = BitVector.or(bv, b); o.bs.or(other.bs); }
+                }
+                if ((step & 15) == 0) assertSameContent(o, bv);
+            }
+            assertSameContent(o, bv);
+        }
+    }
+
     private static void testEdgeSizes() {
         // size 0
         BitVector z = new BitVector(0);
@@ -339,7 +746,7 @@ public class TestBitVector {
      * Main
      * =========================== */
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws java.io.IOException {
         System.out.println("Testing BitVector…");
 
         testConstructionAndCapacity();
@@ -348,6 +755,15 @@ public class TestBitVector {
         testComplementTailMasking();
         testShiftSmall();
         testRotateSmall();
+        testRotateLarge();
+        testShiftLarge();
+        testPopcountRuncountRanges();
+        testRankSelect();
+        testBulkOps();
+        testRangeSetUnsetFlip();
+        testNextPreviousAndIterator();
+        testSerialization();
+        testWideKernels();
         testEdgeSizes();
 
         long seed1 = System.currentTimeMillis();
@@ -0,0 +1,109 @@
+// @edu:student-assignment
+// Run with:  java -ea TestBloomFilter
+
+import uq.comp3506.a1.structures.BitVector;
+import uq.comp3506.a1.structures.BloomFilter;
+import uq.comp3506.a1.structures.CountingBloomFilter;
+
+import java.util.Random;
+
+public class TestBloomFilter {
+
+    // ---------- tiny assert helpers ----------
+    private static void check(boolean cond, String msg) {
+        if (!cond) throw new AssertionError(msg);
+    }
+
+    private static long[] randomKeys(Random r, int n) {
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) keys[i] = r.nextLong();
+        return keys;
+    }
+
+    // ---------- tests ----------
+
+    private static void testNoFalseNegativesAndRate() {
+        Random r = new Random(22);
+        int n = 100_000;
+        long[] keys = randomKeys(r, n);
+        BloomFilter f = new BloomFilter(n, 0.01);
+        check(f.numBits() % 512 == 0, "whole blocks");
+        f.addAll(keys);
+        for (long key : keys) check(f.mightContain(key), "false negative for " + key);
+
+        long[] others = randomKeys(r, n);
+        int falsePositives = 0;
+        for (long key : others) if (f.mightContain(key)) falsePositives++;
+        // blocking costs a little accuracy, but not a factor of 2
+        check(falsePositives < 2 * 0.01 * n, "false positive rate " + falsePositives + "/" + n);
+    }
+
+    private static void testMightContainAll() {
+        Random r = new Random(23);
+        long[] added = randomKeys(r, 1000);
+        BloomFilter f = new BloomFilter(1000, 0.01);
+        f.addAll(added);
+        // a mix of added and unseen keys, not a multiple of 64
+        long[] probe = new long[777];
+        for (int i = 0; i < probe.length; i++) probe[i] = i % 2 == 0 ? added[i] : r.nextLong();
+        BitVector out = new BitVector(probe.length);
+        out.complement(); // stale bits must be overwritten
+        f.mightContainAll(probe, out);
+        for (int i = 0; i < probe.length; i++) {
+            check(out.get(i) == f.mightContain(probe[i]), "bulk result " + i);
+        }
+        check(out.rank1(probe.length) == out.popcount(), "rank index rebuilt after bulk write");
+        boolean threw = false;
+        try { f.mightContainAll(probe, new BitVector(10)); } catch (IllegalArgumentException e) { threw = true; }
+        check(threw, "out of the wrong size should throw");
+    }
+
+    private static void testCounting() {
+        Random r = new Random(24);
+        int n = 20_000;
+        long[] keys = randomKeys(r, n);
+        CountingBloomFilter f = new CountingBloomFilter(n, 0.01);
+        f.addAll(keys);
+        for (long key : keys) check(f.mightContain(key), "false negative before removes");
+        // remove the first half; the second half must all still be there
+        for (int i = 0; i < n / 2; i++) check(f.remove(keys[i]), "remove of an added key");
+        for (int i = n / 2; i < n; i++) check(f.mightContain(keys[i]), "false negative after removes");
+        int stillThere = 0;
+        for (int i = 0; i < n / 2; i++) if (f.mightContain(keys[i])) stillThere++;
+        check(stillThere < 0.02 * n, "removed keys mostly gone: " + stillThere);
+
+        BitVector out = new BitVector(n);
+        f.mightContainAll(keys, out);
+        for (int i = 0; i < n; i++) check(out.get(i) == f.mightContain(keys[i]), "bulk " + i);
+
+        // a key added far more than 15 times saturates and can never be removed
+        CountingBloomFilter g = new CountingBloomFilter(128, 3);
+        for (int i = 0; i < 20; i++) g.add(42);
+        for (int i = 0; i < 20; i++) g.remove(42);
+        check(g.mightContain(42), "stuck counters keep the key");
+        check(!g.remove(7) || g.mightContain(7), "remove of an absent key changes nothing");
+    }
+
+    private static void testArguments() {
+        boolean threw = false;
+        try { new BloomFilter(100, 1.5); } catch (IllegalArgumentException e) { threw = true; }
+        check(threw, "rate out of range should throw");
+        threw = false;
+        try { new BloomFilter(0L, 3); } catch (IllegalArgumentException e) { threw = true; }
+        check(threw, "0 bits should throw");
+        threw = false;
+        try { new CountingBloomFilter(100L, 0); } catch (IllegalArgumentException e) { threw = true; }
+        check(threw, "0 hashes should throw");
+    }
+
+    // ---------- runner ----------
+
+    public static void main(String[] args) {
+        System.out.println("Testing BloomFilter…");
+        testNoFalseNegativesAndRate();
+        testMightContainAll();
+        testCounting();
+        testArguments();
+        System.out.println("All tests passed ✅");
+    }
+}
@@ -0,0 +1,107 @@
+// @edu:student-assignment
+// Run with:  java -ea TestCompressedBitVector
+
+import uq.comp3506.a1.structures.BitVector;
+import uq.comp3506.a1.structures.CompressedBitVector;
+
+import java.util.Random;
+
+public class TestCompressedBitVector {
+
+    // ---------- tiny assert helpers ----------
+    private static void check(boolean cond, String msg) {
+        if (!cond) throw new AssertionError(msg);
+    }
+
+    /** BitVector is the oracle; compare every bit, popcount and runcount */
+    private static void assertSame(BitVector expected, CompressedBitVector actual, String msg) {
+        check(actual.size() == expected.size(), msg + ": size");
+        check(actual.popcount() == expected.popcount(),
+                msg + ": popcount " + actual.popcount() + " vs " + expected.popcount());
+        check(actual.runcount() == expected.runcount(),
+                msg + ": runcount " + actual.runcount() + " vs " + expected.runcount());
+        for (long i = 0; i < expected.size(); i++) {
+            if (actual.get(i) != expected.get(i)) {
+                throw new AssertionError(msg + ": mismatch at " + i);
+            }
+        }
+    }
+
+    // ---------- tests ----------
+
+    private static void testFuzzAgainstBitVector() {
+        Random r = new Random(21);
+        // several containers, the last one partial
+        int n = 5 * (1 << 16) + 1234;
+        BitVector bv = new BitVector(n);
+        CompressedBitVector cbv = new CompressedBitVector(n);
+        for (int round = 0; round < 40; round++) {
+            int op = r.nextInt(4);
+            int from = r.nextInt(n);
+            // runs up to 20000 long push containers past 4096 bits (to bitmaps) and back
+            int to = Math.min(n, from + 1 + r.nextInt(op == 0 ? 20000 : 300));
+            for (int i = from; i < to; i++) {
+                if (op == 3 && r.nextBoolean()) continue; // scattered bits too
+                if (op == 2) { bv.unset(i); cbv.unset(i); }
+                else { bv.set(i); cbv.set(i); }
+            }
+            if (round % 7 == 0) cbv.runOptimize();
+            // and single-bit edits on top of whatever form the containers are in
+            for (int t = 0; t < 200; t++) {
+                int i = r.nextInt(n);
+                if (r.nextBoolean()) { bv.set(i); cbv.set(i); }
+                else { bv.unset(i); cbv.unset(i); }
+            }
+            if (round % 5 == 0) assertSame(bv, cbv, "round " + round);
+        }
+        assertSame(bv, cbv, "end");
+        cbv.runOptimize();
+        assertSame(bv, cbv, "after runOptimize");
+        assertSame(bv, CompressedBitVector.fromBitVector(bv), "fromBitVector");
+        BitVector back = cbv.toBitVector();
+        for (int i = 0; i < n; i++) {
+            check(back.get(i) == bv.get(i), "toBitVector mismatch at " + i);
+        }
+    }
+
+    private static void testRunsAcrossContainers() {
+        int c = 1 << 16;
+        CompressedBitVector cbv = new CompressedBitVector(4L * c);
+        // one run from just before the first boundary to just after the third
+        for (long i = c - 5; i < 3L * c + 7; i++) cbv.set(i);
+        check(cbv.runcount() == 2L * c + 12, "run spanning a full container");
+        cbv.runOptimize();
+        check(cbv.runcount() == 2L * c + 12, "same run as run containers");
+        check(cbv.sizeInBytes() < 100, "three runs take a few bytes: " + cbv.sizeInBytes());
+        cbv.unset(2L * c);
+        check(cbv.runcount() == c + 6, "split at the middle boundary");
+        check(cbv.popcount() == 2L * c + 11, "popcount after split");
+    }
+
+    private static void testSparseHuge() {
+        // far past what a BitVector could hold; only the touched containers exist
+        long n = 1L << 40;
+        CompressedBitVector cbv = new CompressedBitVector(n);
+        for (long i = 0; i < 1000; i++) cbv.set(i * 1_000_000_007L);
+        check(cbv.popcount() == 1000, "sparse popcount");
+        check(cbv.get(999 * 1_000_000_007L) && !cbv.get(1), "sparse get");
+        check(cbv.runcount() == 1, "sparse runcount");
+        check(cbv.sizeInBytes() < 100_000, "sparse size " + cbv.sizeInBytes());
+        boolean threw = false;
+        try { cbv.set(n); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "index past size should throw");
+        threw = false;
+        try { cbv.toBitVector(); } catch (IllegalStateException e) { threw = true; }
+        check(threw, "too big for a BitVector should throw");
+    }
+
+    // ---------- runner ----------
+
+    public static void main(String[] args) {
+        System.out.println("Testing CompressedBitVector…");
+        testFuzzAgainstBitVector();
+        testRunsAcrossContainers();
+        testSparseHuge();
+        System.out.println("All tests passed ✅");
+    }
+}
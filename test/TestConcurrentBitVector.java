@@ -0,0 +1,101 @@
+// @edu:student-assignment
+// Run with:  java -ea TestConcurrentBitVector
+
+import uq.comp3506.a1.structures.BitVector;
+import uq.comp3506.a1.structures.ConcurrentBitVector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestConcurrentBitVector {
+
+    private static final int THREADS = 8;
+
+    // ---------- tiny assert helpers ----------
+    private static void check(boolean cond, String msg) {
+        if (!cond) throw new AssertionError(msg);
+    }
+
+    private static void runAll(Runnable[] tasks) throws InterruptedException {
+        Thread[] threads = new Thread[tasks.length];
+        for (int t = 0; t < tasks.length; t++) {
+            threads[t] = new Thread(tasks[t]);
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+    }
+
+    // ---------- tests ----------
+
+    private static void testSingleThreaded() {
+        ConcurrentBitVector bv = new ConcurrentBitVector(130);
+        check(!bv.testAndSet(64), "first testAndSet sees 0");
+        check(bv.testAndSet(64), "second testAndSet sees 1");
+        bv.set(129);
+        check(bv.get(129) && !bv.get(128), "get");
+        check(bv.popcount() == 2, "popcount");
+        check(bv.testAndUnset(129) && !bv.get(129), "testAndUnset");
+        bv.unset(64);
+        check(bv.popcount() == 0, "popcount after unset");
+        boolean threw = false;
+        try { bv.set(130); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "index past size should throw");
+    }
+
+    private static void testNoLostUpdates() throws InterruptedException {
+        // thread t sets every bit i with i % THREADS == t, so every word is shared
+        final int n = 1 << 20;
+        final ConcurrentBitVector bv = new ConcurrentBitVector(n);
+        Runnable[] tasks = new Runnable[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int mine = t;
+            tasks[t] = () -> {
+                for (int i = mine; i < n; i += THREADS) bv.set(i);
+            };
+        }
+        runAll(tasks);
+        check(bv.popcount() == n, "every bit set, none lost: " + bv.popcount());
+
+        // and the same for unset, leaving only the bits of thread 0
+        for (int t = 0; t < THREADS; t++) {
+            final int mine = t;
+            tasks[t] = () -> {
+                if (mine == 0) return;
+                for (int i = mine; i < n; i += THREADS) bv.unset(i);
+            };
+        }
+        runAll(tasks);
+        check(bv.popcount() == n / THREADS, "only thread 0's bits left: " + bv.popcount());
+        BitVector copy = bv.toBitVector();
+        check(copy.popcount() == n / THREADS && copy.get(0) && !copy.get(1), "snapshot");
+        for (int i = 0; i < n; i++) check(copy.get(i) == bv.get(i), "snapshot bit " + i);
+    }
+
+    private static void testOneWinnerPerBit() throws InterruptedException {
+        // every thread races testAndSet on every bit; each bit has exactly one winner
+        final int n = 1 << 16;
+        final ConcurrentBitVector bv = new ConcurrentBitVector(n);
+        final AtomicLong wins = new AtomicLong();
+        Runnable[] tasks = new Runnable[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            tasks[t] = () -> {
+                long mine = 0;
+                for (int i = 0; i < n; i++) {
+                    if (!bv.testAndSet(i)) mine++;
+                }
+                wins.addAndGet(mine);
+            };
+        }
+        runAll(tasks);
+        check(wins.get() == n, "exactly one winner per bit: " + wins.get());
+    }
+
+    // ---------- runner ----------
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("Testing ConcurrentBitVector…");
+        testSingleThreaded();
+        testNoLostUpdates();
+        testOneWinnerPerBit();
+        System.out.println("All tests passed ✅");
+    }
+}
@@ -80,6 +80,23 @@ public class TestDNAStructure {
         if (k == u.length()) assertEq(rr, 0, "k == size → no repeats");
     }
 
+    private static void testCountRepeatsReuse() {
+        // alternate k (dense and hashed paths) so stale scratch counts would show up
+        Random r = new Random(99);
+        int w = 600;
+        char[] buf = new char[w];
+        DNAStructure dna = new DNAStructure(w);
+        for (int i = 0; i < w; i++) {
+            buf[i] = ALPH[r.nextInt(4)];
+            dna.slide(buf[i]);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int k = 2; k <= 13; k++) {
+                assertEq(dna.countRepeats(k), oracleCountRepeats(buf, 0, w, w, k), "repeat call k=" + k);
+            }
+        }
+    }
+
     private static void testHasPalindromeEvenK() {
         // Even-length DNA palindrome: ACCTAGGT (from spec)
         String palEven = "ACCTAGGT";
@@ -114,6 +131,308 @@ public class TestDNAStructure {
         assertEq(dna.hasPalindrome(2) || !dna.hasPalindrome(2), true, "k=2 call ok");
     }
 
+    private static void testLargeK() {
+        Random r = new Random(2024);
+        int w = 300;
+        // a random 90-base block repeated (with a few mutations) gives repeats at large k
+        char[] block = new char[90];
+        for (int i = 0; i < block.length; i++) block[i] = ALPH[r.nextInt(4)];
+        char[] buf = new char[w];
+        for (int i = 0; i < w; i++) {
+            buf[i] = r.nextInt(40) == 0 ? ALPH[r.nextInt(4)] : block[i % block.length];
+        }
+        // plant a 64-long DNA palindrome at 200
+        for (int j = 0; j < 32; j++) {
+            char c = ALPH[r.nextInt(4)];
+            buf[200 + j] = c;
+            buf[200 + 63 - j] = comp(c);
+        }
+        DNAStructure dna = new DNAStructure(w);
+        DNAStructure packed = new DNAStructure(w, true);
+        dna.trackRepeats(31);
+        dna.trackPalindromes(20);
+        // slide some junk first so the ring wraps
+        for (int i = 0; i < 77; i++) dna.slide('A');
+        for (int i = 0; i < 77; i++) packed.slide('C');
+        for (int i = 0; i < w; i++) { dna.slide(buf[i]); packed.slide(buf[i]); }
+        int[] ks = {14, 16, 20, 21, 31, 32, 33, 40, 63, 64};
+        for (int k : ks) {
+            int exp = oracleCountRepeats(buf, 0, w, w, k);
+            assertEq(dna.countRepeats(k), exp, "countRepeats large k=" + k);
+            assertEq(packed.countRepeats(k), exp, "packed countRepeats large k=" + k);
+            boolean pal = oracleHasPalindrome(buf, 0, w, w, k);
+            assertEq(dna.hasPalindrome(k), pal, "hasPalindrome large k=" + k);
+            assertEq(packed.hasPalindrome(k), pal, "packed hasPalindrome large k=" + k);
+        }
+        assertEq(dna.hasPalindrome(64), true, "planted 64-long palindrome");
+
+        boolean threw = false;
+        try { dna.countRepeats(65); } catch (IllegalArgumentException e) { threw = true; }
+        assertEq(threw, true, "k=65 rejected");
+    }
+
+    private static void testCanonicalRepeats() {
+        // ACG/CGT and CGC/GCG are reverse complement pairs
+        DNAStructure small = new DNAStructure(6);
+        small.slideAll("ACGCGT");
+        assertEq(small.countRepeats(3), 0, "no forward repeats");
+        assertEq(small.countRepeats(3, true), 2, "ACG/CGT and CGC/GCG canonical repeats");
+
+        Random r = new Random(31);
+        for (int round = 0; round < 4; round++) {
+            int w = 200 + r.nextInt(100);
+            StringBuilder sb = new StringBuilder();
+            while (sb.length() < w) {
+                // mostly random, with reverse complements of earlier chunks mixed in
+                if (sb.length() > 50 && r.nextInt(3) == 0) {
+                    int from = r.nextInt(sb.length() - 45);
+                    for (int j = from + 44; j >= from; j--) sb.append(comp(sb.charAt(j)));
+                } else {
+                    sb.append(ALPH[r.nextInt(4)]);
+                }
+            }
+            String str = sb.substring(0, w);
+            DNAStructure dna = new DNAStructure(w, round % 2 == 1);
+            dna.slide('T');
+            dna.slideAll(str.substring(0, 10));
+            dna.slideAll(str);
+            for (int k : new int[]{2, 3, 6, 7, 12, 14, 16, 21, 32, 33, 40}) {
+                assertEq(dna.countRepeats(k, true), oracleCountCanonicalRepeats(str, k),
+                        "canonical k=" + k + " round=" + round);
+                assertEq(dna.countRepeats(k, false), dna.countRepeats(k), "non-canonical k=" + k);
+            }
+        }
+    }
+
+    private static void testParallelRepeats() {
+        Random r = new Random(77);
+        int w = 400_000;
+        char[] block = new char[5000];
+        for (int i = 0; i < block.length; i++) block[i] = ALPH[r.nextInt(4)];
+        char[] bases = new char[w + 1234];
+        for (int i = 0; i < bases.length; i++) {
+            bases[i] = r.nextInt(4) == 0 ? block[i % block.length] : ALPH[r.nextInt(4)];
+        }
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+        try {
+            for (boolean packedMode : new boolean[]{false, true}) {
+                DNAStructure dna = new DNAStructure(w, packedMode);
+                dna.slideAll(bases, 0, w - 1000); // not full yet, head still at 0
+                assertEq(dna.isFull(), false, "parallel window still filling");
+                for (int k : new int[]{3, 12, 16, 32}) {
+                    assertEq(dna.countRepeatsParallel(k, pool), dna.countRepeats(k),
+                            "parallel filling k=" + k + " packed=" + packedMode);
+                }
+                dna.slideAll(bases, w - 1000, bases.length - (w - 1000)); // full and wrapped
+                assertEq(dna.isFull(), true, "parallel window full");
+                for (int k : new int[]{3, 8, 11, 12, 15, 16, 24, 32, 40}) {
+                    assertEq(dna.countRepeatsParallel(k, pool), dna.countRepeats(k),
+                            "parallel k=" + k + " packed=" + packedMode);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void testTrackedRepeats() {
+        // same example as the spec, but tracked before and after filling
+        String s = "CCTATAGGTATACATA";
+        DNAStructure early = new DNAStructure(s.length());
+        early.trackRepeats(3);
+        for (int i = 0; i < s.length(); i++) early.slide(s.charAt(i));
+        assertEq(early.countRepeats(3), 2, "tracked before slides k=3");
+
+        DNAStructure late = new DNAStructure(s.length());
+        for (int i = 0; i < s.length(); i++) late.slide(s.charAt(i));
+        late.trackRepeats(3);
+        assertEq(late.countRepeats(3), 2, "tracked after slides k=3");
+
+        // gtcgtcgtc with k=4 from the spec, then slide it out of the window
+        String g = "GTCGTCGTC";
+        DNAStructure dna = new DNAStructure(g.length());
+        dna.trackRepeats(4);
+        dna.trackRepeats(g.length());
+        for (int i = 0; i < g.length(); i++) dna.slide(g.charAt(i));
+        assertEq(dna.countRepeats(4), 3, "tracked gtcgtcgtc k=4");
+        assertEq(dna.countRepeats(g.length()), 0, "tracked k == w");
+        for (int i = 0; i < g.length(); i++) dna.slide('A');
+        assertEq(dna.countRepeats(4), 1, "all A's, one repeated 4-mer");
+        assertEq(dna.countRepeats(g.length()), 0, "k == w never repeats");
+
+        boolean threw = false;
+        try { dna.trackRepeats(1); } catch (IllegalArgumentException e) { threw = true; }
+        assertEq(threw, true, "k=1 rejected");
+    }
+
+    private static void testTrackedPalindromes() {
+        DNAStructure dna = new DNAStructure(10);
+        dna.trackPalindromes(8);
+        dna.trackPalindromes(4);
+        String s = "GGACCTAGGT"; // ACCTAGGT is an 8-long palindrome
+        for (int i = 0; i < s.length(); i++) dna.slide(s.charAt(i));
+        assertEq(dna.hasPalindrome(8), true, "tracked embedded palindrome k=8");
+        assertEq(dna.hasPalindrome(4), true, "tracked CTAG k=4");
+        dna.slide('A'); // GACCTAGGTA, still there
+        assertEq(dna.hasPalindrome(8), true, "palindrome survives one slide");
+        dna.slide('A');
+        dna.slide('A'); // CCTAGGTAAA, the 8-mer has left
+        assertEq(dna.hasPalindrome(8), false, "palindrome evicted");
+        assertEq(dna.hasPalindrome(4), true, "CTAG still inside");
+
+        // tracking both for one k, registered after the data arrived
+        DNAStructure late = new DNAStructure(4);
+        late.slideAll("TTAA");
+        late.trackPalindromes(4);
+        late.trackRepeats(2);
+        assertEq(late.hasPalindrome(4), true, "late tracked TTAA");
+        assertEq(late.countRepeats(2), 0, "late tracked repeats k=2");
+        late.slide('T');
+        assertEq(late.hasPalindrome(4), false, "TAAT is not a DNA palindrome");
+    }
+
+    private static void testPackedMatchesChars() {
+        // 32 bases are read per word load: widths below, at and above one word,
+        // and 70 crosses two packed words; each wraps the ring several times
+        Random r = new Random(42);
+        for (int w : new int[]{5, 31, 32, 33, 70}) {
+            DNAStructure chars = new DNAStructure(w);
+            DNAStructure packed = new DNAStructure(w, true);
+            for (int i = 0; i < 500; i++) {
+                char c = ALPH[r.nextInt(4)];
+                chars.slide(c);
+                packed.slide(c);
+                assertEq(packed.stringify(), chars.stringify(), "packed stringify @" + i);
+                assertEq(packed.isFull(), chars.isFull(), "packed isFull @" + i);
+                if (i % 37 == 0) {
+                    // sometimes while the window is still filling up
+                    int k = 2 + r.nextInt(Math.min(w, 40) - 1);
+                    assertEq(packed.countRepeats(k), chars.countRepeats(k),
+                            "packed repeats w=" + w + " k=" + k + " @" + i);
+                    assertEq(packed.hasPalindrome(k), chars.hasPalindrome(k),
+                            "packed palindrome w=" + w + " k=" + k + " @" + i);
+                }
+            }
+            for (char c : ALPH) assertEq(packed.count(c), chars.count(c), "packed count " + c);
+            for (int k = 2; k <= Math.min(w, 40); k++) {
+                assertEq(packed.countRepeats(k), chars.countRepeats(k), "packed repeats k=" + k);
+                assertEq(packed.countRepeats(k, true), chars.countRepeats(k, true),
+                        "packed canonical repeats k=" + k);
+                assertEq(packed.hasPalindrome(k), chars.hasPalindrome(k), "packed palindrome k=" + k);
+            }
+        }
+    }
+
+    private static void testSlideAll() {
+        Random r = new Random(7);
+        int w = 12;
+        DNAStructure one = new DNAStructure(w);
+        DNAStructure bulk = new DNAStructure(w);
+        DNAStructure bulkPacked = new DNAStructure(w, true);
+        one.trackRepeats(3);
+        bulk.trackRepeats(3);
+        one.trackPalindromes(4);
+        bulk.trackPalindromes(4);
+        // chunk lengths below, at and above w, mixing the three input forms
+        int[] lens = {0, 1, 5, 11, 12, 13, 30, 3, 100, 7};
+        for (int j = 0; j < lens.length; j++) {
+            char[] chunk = new char[lens[j] + 2];
+            for (int i = 0; i < chunk.length; i++) chunk[i] = ALPH[r.nextInt(4)];
+            for (int i = 1; i <= lens[j]; i++) one.slide(chunk[i]);
+            String str = new String(chunk, 1, lens[j]);
+            if (j % 3 == 0) {
+                bulk.slideAll(str);
+            } else if (j % 3 == 1) {
+                bulk.slideAll(chunk, 1, lens[j]);
+            } else {
+                java.nio.ByteBuffer bb = java.nio.ByteBuffer.wrap(
+                        ("x" + str + "y").getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+                bb.position(1).limit(1 + lens[j]);
+                bulk.slideAll(bb);
+                assertEq(bb.position(), 1 + lens[j], "ByteBuffer consumed to limit");
+            }
+            bulkPacked.slideAll(str);
+            assertEq(bulk.stringify(), one.stringify(), "slideAll stringify chunk " + j);
+            assertEq(bulkPacked.stringify(), one.stringify(), "packed slideAll chunk " + j);
+            for (char c : ALPH) assertEq(bulk.count(c), one.count(c), "slideAll count " + c);
+            assertEq(bulk.countRepeats(3), one.countRepeats(3), "slideAll tracked repeats");
+            assertEq(bulk.countRepeats(4), one.countRepeats(4), "slideAll repeats k=4");
+            assertEq(bulk.hasPalindrome(4), one.hasPalindrome(4), "slideAll tracked palindrome");
+        }
+    }
+
+    private static void testClear() {
+        for (boolean packedMode : new boolean[]{false, true}) {
+            DNAStructure dna = new DNAStructure(6, packedMode);
+            dna.trackRepeats(2);
+            dna.trackPalindromes(4);
+            dna.slideAll("GAATTCGA");
+            dna.clear();
+            assertEq(dna.stringify(), "", "empty after clear packed=" + packedMode);
+            assertEq(dna.isFull(), false, "not full after clear packed=" + packedMode);
+            assertEq(dna.count('A'), 0, "counts reset packed=" + packedMode);
+            assertEq(dna.countRepeats(2), 0, "tracked repeats reset packed=" + packedMode);
+            assertEq(dna.hasPalindrome(4), false, "tracked palindromes reset packed=" + packedMode);
+            dna.clear(); // clearing an empty window is fine
+            // and it then behaves as a new one
+            DNAStructure fresh = new DNAStructure(6, packedMode);
+            for (String part : new String[]{"ACAC", "GTACG", "TT"}) {
+                dna.slideAll(part);
+                fresh.slideAll(part);
+                assertEq(dna.stringify(), fresh.stringify(), "window after clear packed=" + packedMode);
+                assertEq(dna.countRepeats(2), fresh.countRepeats(2), "repeats after clear");
+                assertEq(dna.hasPalindrome(4), fresh.hasPalindrome(4), "palindromes after clear");
+            }
+        }
+    }
+
+    private static void testSlideAllRejectsInvalid() {
+        // a bad base in the skipped prefix, in the last w bases, or in a short input
+        String[] inputs = {"NACGTACGTACGTACGTAC", "ACGTACGTACGTACGTACx", "ACGTTGCA", "GA-C"};
+        for (boolean packedMode : new boolean[]{false, true}) {
+            for (String bad : inputs) {
+                for (int form = 0; form < 3; form++) {
+                    DNAStructure dna = new DNAStructure(10, packedMode);
+                    dna.trackRepeats(2);
+                    dna.trackPalindromes(4);
+                    dna.slideAll("GGATCCAT");
+                    String before = dna.stringify();
+                    int repeatsBefore = dna.countRepeats(2);
+                    boolean threw = false;
+                    String in = bad.equals("ACGTTGCA") ? "ACGTTGCa" : bad;
+                    java.nio.ByteBuffer bb = java.nio.ByteBuffer.wrap(
+                            in.getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+                    try {
+                        if (form == 0) dna.slideAll(in);
+                        else if (form == 1) dna.slideAll(in.toCharArray(), 0, in.length());
+                        else dna.slideAll(bb);
+                    } catch (IllegalArgumentException e) {
+                        threw = true;
+                    }
+                    String what = "'" + in + "' form " + form + " packed=" + packedMode;
+                    assertEq(threw, true, "invalid base should throw: " + what);
+                    assertEq(bb.position(), 0, "buffer not consumed: " + what);
+                    assertEq(dna.stringify(), before, "window unchanged: " + what);
+                    assertEq(dna.count('A'), 2, "count A unchanged: " + what);
+                    assertEq(dna.count('G'), 2, "count G unchanged: " + what);
+                    assertEq(dna.countRepeats(2), repeatsBefore, "tracked repeats unchanged: " + what);
+                    assertEq(dna.hasPalindrome(4), true, "tracked GGATCC/GATC kept: " + what);
+                    dna.slideAll("TT"); // and it keeps working afterwards
+                    assertEq(dna.stringify(), before + "TT", "usable after: " + what);
+                }
+            }
+            // slide on its own rejects the same chars the same way
+            DNAStructure dna = new DNAStructure(4, packedMode);
+            dna.slideAll("ACGTA");
+            for (char c : new char[]{'N', 'a', '-', (char) 0}) {
+                String message = null;
+                try { dna.slide(c); } catch (IllegalArgumentException e) { message = e.getMessage(); }
+                assertEq(message, "Invalid base '" + c + "'", "slide('" + c + "') packed=" + packedMode);
+                assertEq(dna.stringify(), "CGTA", "slide left the window: packed=" + packedMode);
+            }
+        }
+    }
+
     // ---------- oracles for fuzz ----------
 
     private static final char[] ALPH = new char[]{'A','C','G','T'};
@@ -153,6 +472,20 @@ public class TestDNAStructure {
         return c;
     }
 
+    private static int oracleCountCanonicalRepeats(String s, int k) {
+        java.util.Map<String, Integer> seen = new java.util.HashMap<>();
+        for (int i = 0; i + k <= s.length(); i++) {
+            String kmer = s.substring(i, i + k);
+            StringBuilder rc = new StringBuilder();
+            for (int j = k - 1; j >= 0; j--) rc.append(comp(kmer.charAt(j)));
+            String key = kmer.compareTo(rc.toString()) <= 0 ? kmer : rc.toString();
+            seen.merge(key, 1, Integer::sum);
+        }
+        int repeats = 0;
+        for (int c : seen.values()) if (c >= 2) repeats++;
+        return repeats;
+    }
+
     private static boolean oracleHasPalindrome(char[] buf, int head, int size, int cap, int k) {
         if (k < 2 || k > size) return false;
         for (int i = 0; i <= size - k; i++) {
@@ -170,12 +503,23 @@ public class TestDNAStructure {
     // ---------- randomized fuzz (k in [2,13], w positive) ----------
 
     private static void randomizedFuzz(long seed, int window, int ops) {
+        randomizedFuzz(seed, window, ops, new DNAStructure(window));
+    }
+
+    private static DNAStructure trackedAll(int window) {
+        DNAStructure dna = new DNAStructure(window);
+        for (int k = 2; k <= Math.min(13, window); k++) {
+            dna.trackRepeats(k);
+            dna.trackPalindromes(k);
+        }
+        return dna;
+    }
+
+    private static void randomizedFuzz(long seed, int window, int ops, DNAStructure dna) {
         if (window <= 0) throw new IllegalArgumentException("window must be positive for this test");
         System.out.println("Fuzz seed=" + seed + " window=" + window + " ops=" + ops);
         Random rnd = new Random(seed);
 
-        DNAStructure dna = new DNAStructure(window);
-
         char[] buf = new char[window]; // oracle mirror buffer
         int head = 0;
         int size = 0;
@@ -241,12 +585,25 @@ public class TestDNAStructure {
 
         testBasicsAndStringify();
         testCountRepeatsWithinKRange();
+        testCountRepeatsReuse();
         testHasPalindromeEvenK();
         testKBounds();
+        testLargeK();
+        testCanonicalRepeats();
+        testParallelRepeats();
+        testTrackedRepeats();
+        testTrackedPalindromes();
+        testPackedMatchesChars();
+        testSlideAll();
+        testSlideAllRejectsInvalid();
+        testClear();
 
         randomizedFuzz(123456789L,  8,  6000);
         randomizedFuzz(987654321L, 16,  9000);
         randomizedFuzz(System.currentTimeMillis(), 32, 15000);
+        randomizedFuzz(192837465L, 16, 9000, trackedAll(16));
+        randomizedFuzz(System.currentTimeMillis(), 40, 15000, trackedAll(40));
+        randomizedFuzz(555555555L, 33, 15000, new DNAStructure(33, true));
 
         System.out.println("All tests passed ✅");
     }
@@ -0,0 +1,133 @@
+// @edu:student-assignment
+// Run with:  java -ea TestFastaReader
+
+import uq.comp3506.a1.DNAStructure;
+import uq.comp3506.a1.FastaReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TestFastaReader {
+
+    // ---------- tiny assert helpers ----------
+    private static void assertEq(long a, long b, String msg) {
+        if (a != b) throw new AssertionError(msg + " | expected=" + b + " actual=" + a);
+    }
+    private static void assertEq(String a, String b, String msg) {
+        if (!a.equals(b)) throw new AssertionError(msg + " | expected=" + b + " actual=" + a);
+    }
+
+    private static Path write(String contents) throws IOException {
+        Path p = Files.createTempFile("fasta", ".txt");
+        p.toFile().deleteOnExit();
+        Files.write(p, contents.getBytes(StandardCharsets.US_ASCII));
+        return p;
+    }
+
+    // ---------- tests ----------
+
+    private static void testFasta() throws IOException {
+        Path p = write(">chr1 some description\nACGTAC\ngtNNac\n;comment\n>chr2\r\nTTAA\r\n");
+        DNAStructure dna = new DNAStructure(32);
+        FastaReader reader = new FastaReader(p);
+        reader.resetAtBreaks(false);
+        long n = reader.streamInto(dna);
+        assertEq(n, 14, "bases read");
+        assertEq(dna.stringify(), "ACGTACGTACTTAA", "headers, newlines, N skipped");
+
+        // by default the window restarts at each record and each N
+        p = write(">chr1\nACGTAC\ngtNNac\n;comment\nGG\n");
+        dna = new DNAStructure(32);
+        assertEq(new FastaReader(p).streamInto(dna), 12, "bases read with resets");
+        assertEq(dna.stringify(), "ACGG", "window restarts after N, not at a comment");
+        p = write(">chr1\nACGTAC\n>chr2\r\nTTAA\r\n");
+        assertEq(new FastaReader(p).streamInto(dna), 10, "bases read over two records");
+        assertEq(dna.stringify(), "TTAA", "window restarts at each record");
+    }
+
+    private static void testFastq() throws IOException {
+        // quality lines deliberately start with '@' and '+'
+        Path p = write("@read1\nACGT\n+\n@+II\n@read2 x\nGGCC\nAA\n+read2 x\n+@II\nIJ\n");
+        DNAStructure dna = new DNAStructure(32);
+        FastaReader reader = new FastaReader(p);
+        reader.resetAtBreaks(false);
+        long n = reader.streamInto(dna);
+        assertEq(n, 10, "bases read");
+        assertEq(dna.stringify(), "ACGTGGCCAA", "quality lines skipped by length");
+
+        // an '@' quality line is not a record start, so only read2 clears
+        dna = new DNAStructure(32);
+        assertEq(new FastaReader(p).streamInto(dna), 10, "bases read with resets");
+        assertEq(dna.stringify(), "GGCCAA", "window restarts at each read");
+    }
+
+    private static void testResetKeepsTracking() throws IOException {
+        // AC repeats in the first record but must not be counted across the
+        // gap or the record break
+        Path p = write(">a\nACAC\n>b\nGTNAC\n");
+        DNAStructure dna = new DNAStructure(16, true);
+        dna.trackRepeats(2);
+        dna.trackPalindromes(2);
+        new FastaReader(p).streamInto(dna);
+        assertEq(dna.stringify(), "AC", "last run only");
+        assertEq(dna.countRepeats(2), 0, "tracked repeats restart with the window");
+        assertEq(dna.hasPalindrome(2) ? 1 : 0, 0, "tracked palindromes restart too");
+        dna.slideAll("GTAC");
+        assertEq(dna.countRepeats(2), 1, "AC again after the reset");
+        assertEq(dna.hasPalindrome(2) ? 1 : 0, 1, "ACGTAC holds CG and TA");
+    }
+
+    private static void testStrideCallbacks() throws IOException {
+        StringBuilder seq = new StringBuilder();
+        for (int i = 0; i < 50; i++) seq.append("ACGT".charAt((i * 7) % 4));
+        Path p = write(">x\n" + seq.substring(0, 23) + "\n" + seq.substring(23) + "\n");
+
+        DNAStructure dna = new DNAStructure(10);
+        FastaReader reader = new FastaReader(p);
+        final long[] fired = new long[2];
+        final StringBuilder order = new StringBuilder();
+        reader.onStride(8, 3, (bases, repeats) -> {
+            fired[0]++;
+            order.append(bases).append(',');
+            // rebuild the expected window to compare against
+            String w = seq.substring((int) Math.max(0, bases - 10), (int) bases);
+            DNAStructure check = new DNAStructure(10);
+            check.slideAll(w);
+            assertEq(repeats, check.countRepeats(3), "repeats at " + bases);
+        }, (bases, found) -> fired[1]++);
+        assertEq(reader.streamInto(dna), 50, "bases read");
+        assertEq(fired[0], 6, "repeat callbacks");
+        assertEq(fired[1], 6, "palindrome callbacks");
+        assertEq(order.toString(), "8,16,24,32,40,48,", "callback positions");
+        assertEq(dna.stringify(), seq.substring(40), "final window");
+    }
+
+    private static void testStrideRejectsBadK() {
+        FastaReader reader = new FastaReader(Path.of("unused.fa"));
+        for (int k : new int[]{-1, 0, 1, 65}) {
+            boolean threw = false;
+            try {
+                reader.onStride(8, k, (bases, repeats) -> { }, null);
+            } catch (IllegalArgumentException e) {
+                threw = true;
+            }
+            if (!threw) throw new AssertionError("onStride should reject k=" + k);
+        }
+        reader.onStride(8, 64, null, null); // the largest packable k is fine
+        reader.onStride(0, 0, null, null); // k is not used with callbacks off
+    }
+
+    // ---------- runner ----------
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("Testing FastaReader…");
+        testFasta();
+        testFastq();
+        testResetKeepsTracking();
+        testStrideCallbacks();
+        testStrideRejectsBadK();
+        System.out.println("All tests passed ✅");
+    }
+}
@@ -0,0 +1,100 @@
+// @edu:student-assignment
+// Run with:  java -ea TestGrowableBitVector
+
+import uq.comp3506.a1.structures.BitVector;
+import uq.comp3506.a1.structures.GrowableBitVector;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class TestGrowableBitVector {
+
+    // ---------- tiny assert helpers ----------
+    private static void check(boolean cond, String msg) {
+        if (!cond) throw new AssertionError(msg);
+    }
+
+    /** a BitSet plus a length is the oracle */
+    private static void assertSame(BitSet expected, int n, GrowableBitVector actual, String msg) {
+        check(actual.size() == n, msg + ": size " + actual.size() + " vs " + n);
+        check(actual.capacity() >= n, msg + ": capacity");
+        check(actual.popcount() == expected.cardinality(), msg + ": popcount");
+        for (int i = 0; i < n; i++) {
+            if (actual.get(i) != expected.get(i)) throw new AssertionError(msg + ": mismatch at " + i);
+        }
+    }
+
+    // ---------- tests ----------
+
+    private static void testFuzz() {
+        Random r = new Random(24);
+        GrowableBitVector bv = new GrowableBitVector();
+        BitSet o = new BitSet();
+        int n = 0;
+        for (int step = 0; step < 20_000; step++) {
+            int op = r.nextInt(20);
+            if (op < 8) {
+                boolean bit = r.nextBoolean();
+                bv.append(bit);
+                if (bit) o.set(n);
+                n++;
+            } else if (op < 15) {
+                int bits = r.nextInt(65);
+                long word = r.nextLong(); // high garbage past `bits` must be ignored
+                bv.appendWord(word, bits);
+                for (int i = 0; i < bits; i++) if (((word >>> i) & 1L) != 0) o.set(n + i);
+                n += bits;
+            } else if (op < 18 && n > 0) {
+                int ix = r.nextInt(n);
+                if (r.nextBoolean()) { bv.set(ix); o.set(ix); }
+                else { bv.unset(ix); o.clear(ix); }
+            } else if (op == 18) {
+                int newSize = r.nextInt(n + 1);
+                bv.truncate(newSize);
+                o.clear(newSize, Math.max(newSize, n));
+                n = newSize;
+            } else {
+                bv.ensureCapacity(n + r.nextInt(1000));
+            }
+            if ((step & 511) == 0) assertSame(o, n, bv, "step " + step);
+        }
+        assertSame(o, n, bv, "end");
+        BitVector fixed = bv.toBitVector();
+        check(fixed.size() == n && fixed.popcount() == o.cardinality(), "toBitVector");
+        for (int i = 0; i < n; i++) check(fixed.get(i) == o.get(i), "toBitVector bit " + i);
+    }
+
+    private static void testGrowthAndTruncate() {
+        GrowableBitVector bv = new GrowableBitVector(0);
+        check(bv.capacity() == 64, "at least one word");
+        for (int i = 0; i < 65; i++) bv.append(true);
+        check(bv.capacity() == 128, "doubled once");
+        bv.appendWord(-1L, 64);
+        check(bv.capacity() == 256 && bv.size() == 129, "doubled again");
+        bv.truncate(3);
+        check(bv.capacity() == 256 && bv.popcount() == 3, "truncate keeps the capacity");
+        bv.appendWord(0L, 64);
+        check(bv.popcount() == 3, "truncated bits do not come back");
+        bv.ensureCapacity(10_000);
+        check(bv.capacity() >= 10_000 && bv.size() == 67, "ensureCapacity leaves size alone");
+
+        boolean threw = false;
+        try { bv.truncate(68); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "truncate past size should throw");
+        threw = false;
+        try { bv.get(67); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "get past size should throw");
+        threw = false;
+        try { bv.appendWord(0L, 65); } catch (IllegalArgumentException e) { threw = true; }
+        check(threw, "more than 64 bits should throw");
+    }
+
+    // ---------- runner ----------
+
+    public static void main(String[] args) {
+        System.out.println("Testing GrowableBitVector…");
+        testFuzz();
+        testGrowthAndTruncate();
+        System.out.println("All tests passed ✅");
+    }
+}
@@ -0,0 +1,131 @@
+// @edu:student-assignment
+// Run with:  java -ea TestMappedBitVector
+
+import uq.comp3506.a1.structures.BitVector;
+import uq.comp3506.a1.structures.MappedBitVector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TestMappedBitVector {
+
+    // ---------- tiny assert helpers ----------
+    private static void check(boolean cond, String msg) {
+        if (!cond) throw new AssertionError(msg);
+    }
+
+    private static Path tempFile() throws IOException {
+        Path p = Files.createTempFile("bitvector", ".bin");
+        p.toFile().deleteOnExit();
+        Files.delete(p); // mapFile creates it
+        return p;
+    }
+
+    // ---------- tests ----------
+
+    private static void testCreateAndReopen() throws IOException {
+        Path p = tempFile();
+        long n = 1000;
+        try (MappedBitVector bv = BitVector.mapFile(p, n)) {
+            check(bv.size() == n && bv.capacity() == 1024, "size and capacity as BitVector");
+            check(bv.popcount() == 0, "a new file starts at all 0's");
+            bv.set(0);
+            bv.set(63);
+            bv.set(64);
+            bv.set(999);
+            bv.force();
+        }
+        check(Files.size(p) == 16 + 16 * 8, "header plus 16 words");
+        try (MappedBitVector bv = BitVector.mapFile(p, n)) {
+            check(bv.popcount() == 4, "bits survive reopening");
+            check(bv.get(0) && bv.get(63) && bv.get(64) && bv.get(999) && !bv.get(998), "same bits");
+            bv.complement();
+            check(bv.popcount() == n - 4, "complement keeps the tail masked");
+        }
+        try (MappedBitVector bv = BitVector.mapFile(p, n)) {
+            check(bv.popcount() == n - 4, "unforced changes still reach the file on close");
+        }
+    }
+
+    private static void testBadFiles() throws IOException {
+        Path p = tempFile();
+        BitVector.mapFile(p, 100).close();
+        boolean threw = false;
+        try { BitVector.mapFile(p, 101); } catch (IOException e) { threw = true; }
+        check(threw, "size mismatch should throw");
+
+        Path junk = tempFile();
+        byte[] text = new byte[40];
+        java.util.Arrays.fill(text, (byte) 'x');
+        Files.write(junk, text);
+        threw = false;
+        try { BitVector.mapFile(junk, 100); } catch (IOException e) { threw = true; }
+        check(threw, "bad magic should throw");
+
+        Path shortBody = tempFile();
+        BitVector.mapFile(shortBody, 1000).close();
+        byte[] whole = Files.readAllBytes(shortBody);
+        Files.write(shortBody, java.util.Arrays.copyOf(whole, whole.length - 8));
+        threw = false;
+        try { BitVector.mapFile(shortBody, 1000); } catch (IOException e) { threw = true; }
+        check(threw, "a file with a header but missing words should throw");
+    }
+
+    private static void testUnfinishedCreate() throws IOException {
+        // a crash during create leaves the file empty, or sized but with the
+        // header, written last, still 0
+        for (int len : new int[]{0, 16 + 16 * 8}) {
+            Path p = tempFile();
+            Files.write(p, new byte[len]);
+            try (MappedBitVector bv = BitVector.mapFile(p, 1000)) {
+                check(bv.popcount() == 0, "recreated empty, length " + len);
+                bv.set(999);
+            }
+            check(Files.size(p) == 16 + 16 * 8, "recreated at the right length " + len);
+            try (MappedBitVector bv = BitVector.mapFile(p, 1000)) {
+                check(bv.get(999) && bv.popcount() == 1, "reopens normally " + len);
+            }
+        }
+    }
+
+    private static void testZeroFilesKept() throws IOException {
+        // files that merely start with 0's are not ours to overwrite
+        for (int len : new int[]{7, 16, 16 + 16 * 8 - 1, 500}) {
+            Path p = tempFile();
+            byte[] content = new byte[len];
+            if (len > 16) content[len - 1] = 1;
+            Files.write(p, content);
+            boolean threw = false;
+            try { BitVector.mapFile(p, 1000); } catch (IOException e) { threw = true; }
+            check(threw, "a zero-headed file of " + len + " bytes should throw");
+            check(java.util.Arrays.equals(Files.readAllBytes(p), content), "left as it was " + len);
+        }
+    }
+
+    private static void testTailMaskedOnOpen() throws IOException {
+        // a hand-written file with garbage past size in the last word
+        Path p = tempFile();
+        ByteBuffer b = ByteBuffer.allocate(16 + 8).order(ByteOrder.LITTLE_ENDIAN);
+        b.put("BITVEC01".getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+        b.putLong(10).putLong(-1L);
+        Files.write(p, b.array());
+        try (MappedBitVector bv = BitVector.mapFile(p, 10)) {
+            check(bv.popcount() == 10, "only the 10 active bits count");
+        }
+    }
+
+    // ---------- runner ----------
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("Testing MappedBitVector…");
+        testCreateAndReopen();
+        testBadFiles();
+        testUnfinishedCreate();
+        testZeroFilesKept();
+        testTailMaskedOnOpen();
+        System.out.println("All tests passed ✅");
+    }
+}
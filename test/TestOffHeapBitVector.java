@@ -0,0 +1,107 @@
+// @edu:student-assignment
+// Run with:  java -ea TestOffHeapBitVector
+
+import uq.comp3506.a1.structures.BitVector;
+import uq.comp3506.a1.structures.OffHeapBitVector;
+
+import java.util.Random;
+
+public class TestOffHeapBitVector {
+
+    // ---------- tiny assert helpers ----------
+    private static void check(boolean cond, String msg) {
+        if (!cond) throw new AssertionError(msg);
+    }
+
+    /** BitVector is the oracle; compare every bit and the popcount */
+    private static void assertSame(BitVector expected, OffHeapBitVector actual, String msg) {
+        check(actual.size() == expected.size(), msg + ": size");
+        check(actual.capacity() == expected.capacity(), msg + ": capacity");
+        check(actual.popcount() == expected.popcount(), msg + ": popcount");
+        for (long i = 0; i < expected.size(); i++) {
+            if (actual.get(i) != expected.get(i)) {
+                throw new AssertionError(msg + ": mismatch at " + i);
+            }
+        }
+    }
+
+    // ---------- tests ----------
+
+    private static void testFuzzAgainstBitVector() {
+        Random r = new Random(18);
+        int[] sizes = {0, 1, 63, 64, 65, 130, 1000};
+        for (int n : sizes) {
+            BitVector bv = new BitVector(n);
+            try (OffHeapBitVector off = new OffHeapBitVector(n)) {
+                for (int step = 0; step < 5000; step++) {
+                    int op = r.nextInt(10);
+                    if (n == 0) {
+                        off.complement(); bv.complement();
+                    } else if (op < 5) {
+                        int ix = r.nextInt(n);
+                        if (r.nextBoolean()) { off.set(ix); bv.set(ix); }
+                        else { off.unset(ix); bv.unset(ix); }
+                    } else if (op == 5) {
+                        off.complement(); bv.complement();
+                    } else if (op < 8) {
+                        int dist = r.nextInt(2 * n + 128) - n - 64;
+                        off.shift(dist); bv.shift(dist);
+                    } else {
+                        int dist = r.nextInt(2 * n + 128) - n - 64;
+                        off.rotate(dist); bv.rotate(dist);
+                    }
+                    if ((step & 127) == 0) assertSame(bv, off, "n=" + n + " step=" + step);
+                }
+                assertSame(bv, off, "n=" + n);
+            }
+        }
+    }
+
+    private static void testLarge() {
+        // just over one 2^21-word chunk, so words straddle the chunk boundary
+        long n = (1L << 27) + 100;
+        try (OffHeapBitVector off = new OffHeapBitVector(n)) {
+            long edge = 1L << 27;
+            off.set(edge - 1);
+            off.set(edge);
+            off.set(n - 1);
+            check(off.popcount() == 3, "popcount of a large vector");
+            off.shift(37);
+            check(off.get(edge + 36) && off.get(edge + 37) && !off.get(edge - 1), "shift of a large vector");
+            check(off.popcount() == 2, "top bit shifted out");
+            off.rotate(-(edge + 36));
+            check(off.get(0) && off.get(1) && off.popcount() == 2, "rotate of a large vector");
+            off.complement();
+            check(off.popcount() == n - 2, "complement keeps the tail masked");
+        }
+    }
+
+    private static void testClose() {
+        OffHeapBitVector off = new OffHeapBitVector(100);
+        off.set(5);
+        off.close();
+        off.close(); // closing twice is fine
+        boolean threw = false;
+        try { off.get(5); } catch (IllegalStateException e) { threw = true; }
+        check(threw, "use after close should throw");
+        threw = false;
+        try { off.rotate(3); } catch (IllegalStateException e) { threw = true; }
+        check(threw, "rotate after close should throw");
+        threw = false;
+        try { new OffHeapBitVector(10).set(10); } catch (IndexOutOfBoundsException e) { threw = true; }
+        check(threw, "index past size should throw");
+        threw = false;
+        try { new OffHeapBitVector(-1); } catch (IllegalArgumentException e) { threw = true; }
+        check(threw, "negative size should throw");
+    }
+
+    // ---------- runner ----------
+
+    public static void main(String[] args) {
+        System.out.println("Testing OffHeapBitVector…");
+        testFuzzAgainstBitVector();
+        testLarge();
+        testClose();
+        System.out.println("All tests passed ✅");
+    }
+}